@@ -0,0 +1,58 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the fling physics: creating a {@link FlingCurve}, sampling it once per frame,
+ * predicting a fling's landing, and the per frame velocity decay flings used to run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FlingBenchmark {
+
+    @Param({"20000"})
+    public int velocity;
+
+    private final FlingCurve curve = new FlingCurve(20000 / Constants.INITIAL_FLING_VELOCITY_DAMPENING, Constants.FLING_VELOCITY_DAMPENING);
+    private final WheelSectionAngles sectionAngles = new WheelSectionAngles(new float[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+    private long elapsedNanos = 1234567890L;
+
+
+    /**
+     * What {@link PrizeWheelView#predictFling(int, boolean)} computes, on a 12 section wheel at 180 degrees
+     */
+    @Benchmark
+    public double predictLanding() {
+        FlingCurve curve = new FlingCurve(velocity / Constants.INITIAL_FLING_VELOCITY_DAMPENING, Constants.FLING_VELOCITY_DAMPENING);
+        double angle = WheelGeometry.normalizeRotation(180.0 - curve.getTotalAngle());
+        return sectionAngles.getSectionIndex(angle, 270) + angle;
+    }
+
+    @Benchmark
+    public double sampleFrame() {
+        return curve.getAngleAt(elapsedNanos);
+    }
+
+    /**
+     * The whole fling, integrated frame by frame like the old FlingRunnable did
+     */
+    @Benchmark
+    public double legacyPerFrameDecay() {
+        float v = velocity / Constants.INITIAL_FLING_VELOCITY_DAMPENING;
+        double angle = 0;
+        while (Math.abs(v) > Constants.FLING_MINIMUM_VELOCITY) {
+            angle += v / Constants.FLING_VELOCITY_PER_DEGREE;
+            v /= Constants.FLING_VELOCITY_DAMPENING;
+        }
+        return angle;
+    }
+}
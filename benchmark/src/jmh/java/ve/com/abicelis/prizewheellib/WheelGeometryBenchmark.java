@@ -0,0 +1,98 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the math run on every touch event and wheel frame: rotation, selected section,
+ * touch angle and angular velocity, plus the slice bounds and label sizes computed on every wheel generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WheelGeometryBenchmark {
+
+    @Param({"12", "50", "200"})
+    public int sections;
+
+    private float angleOffset;
+    private double rotation;
+    private WheelRotation wheelRotation = new WheelRotation();
+    private WheelSectionAngles uniformSections;
+    private WheelSectionAngles weightedSections;
+    private double touchX, touchY;
+    private AngularVelocityTracker velocityTracker = new AngularVelocityTracker();
+    private long touchTime;
+    private float[] bounds = new float[4];
+
+    @Setup
+    public void setUp() {
+        wheelRotation.rotate(123.4);
+
+        float[] weights = new float[sections];
+        Arrays.fill(weights, 1);
+        uniformSections = new WheelSectionAngles(weights);
+
+        weights = new float[sections];
+        for(int i = 0; i < sections; i++)
+            weights[i] = 1 + i % 7;
+        weightedSections = new WheelSectionAngles(weights);
+        angleOffset = 90 - (360f / sections) / 2;
+        rotation = 236.6;
+        touchX = 812.5;
+        touchY = 233.25;
+    }
+
+    @Benchmark
+    public double getCurrentRotation() {
+        return wheelRotation.getRotation(angleOffset);
+    }
+
+    @Benchmark
+    public int getCurrentSelectedSectionIndex() {
+        return uniformSections.getSectionIndex(rotation, 270);
+    }
+
+    @Benchmark
+    public int getWeightedSectionIndex() {
+        return weightedSections.getSectionIndex(rotation, 270);
+    }
+
+    @Benchmark
+    public double getTouchAngle() {
+        return WheelGeometry.getTouchAngle(touchX, touchY, 1080, 1080);
+    }
+
+    /**
+     * One touch sample, plus the velocity estimated on release, amortized over a 20 sample drag
+     */
+    @Benchmark
+    public double trackTouchSample() {
+        touchTime += 4;
+        double degrees = velocityTracker.addSample(touchTime, touchTime % 360);
+        if(touchTime % 80 == 0)
+            degrees += velocityTracker.getVelocity();
+        return degrees;
+    }
+
+    @Benchmark
+    public float[] getSliceBounds() {
+        float sweepAngle = 360f / sections;
+        WheelGeometry.getSliceBounds(2, 2, 1078, 1078, 90 - sweepAngle / 2, sweepAngle, bounds);
+        return bounds;
+    }
+
+    @Benchmark
+    public float fitLabelTextSize() {
+        return WheelGeometry.fitLabelTextSize(3.2f, 48, 21, 520, 135, 360.0 / sections);
+    }
+}
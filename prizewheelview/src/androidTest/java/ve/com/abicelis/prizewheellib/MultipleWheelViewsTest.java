@@ -0,0 +1,95 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import ve.com.abicelis.prizewheellib.model.MarkerPosition;
+import ve.com.abicelis.prizewheellib.model.WheelColorSection;
+import ve.com.abicelis.prizewheellib.model.WheelSection;
+
+import static org.junit.Assert.*;
+
+/**
+ * Generates and flings several {@link PrizeWheelView}s at the same time, each with its own
+ * sections and marker position. Every wheel must settle where it was predicted to when it was
+ * the only wheel generated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MultipleWheelViewsTest {
+
+    private static final int WHEELS = 6;
+    private static final int WHEEL_SIZE = 400;
+    private static final int FLING_VELOCITY = 12000;
+    private static final long SETTLE_TIMEOUT_SECONDS = 30;
+
+    @Test
+    public void concurrentWheels_settleIndependently() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final List<PrizeWheelView> wheels = new ArrayList<>();
+        final int[] expectedSections = new int[WHEELS];
+        final int[] settledSections = new int[WHEELS];
+        final CountDownLatch settled = new CountDownLatch(WHEELS);
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i < WHEELS; i++) {
+                    PrizeWheelView wheel = createWheel(context, i);
+                    expectedSections[i] = wheel.predictFling(FLING_VELOCITY, true).getSectionIndex();
+                    wheels.add(wheel);
+                }
+
+                for(int i = 0; i < WHEELS; i++) {
+                    final int index = i;
+                    wheels.get(i).setWheelEventsListener(new WheelEventsListener() {
+                        @Override
+                        public void onWheelStopped() {}
+
+                        @Override
+                        public void onWheelFlung() {}
+
+                        @Override
+                        public void onWheelSettled(int sectionIndex, double angle) {
+                            settledSections[index] = sectionIndex;
+                            settled.countDown();
+                        }
+                    });
+                    wheels.get(i).flingWheel(FLING_VELOCITY, true);
+                }
+            }
+        });
+
+        assertTrue("Wheels didn't settle", settled.await(SETTLE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertArrayEquals(expectedSections, settledSections);
+    }
+
+
+    /**
+     * @return A generated wheel with as many sections as its index plus 2, and its own marker position
+     */
+    private static PrizeWheelView createWheel(Context context, int index) {
+        PrizeWheelView wheel = new PrizeWheelView(context);
+        wheel.setMarkerPosition(MarkerPosition.values()[index % MarkerPosition.values().length]);
+
+        int measureSpec = View.MeasureSpec.makeMeasureSpec(WHEEL_SIZE, View.MeasureSpec.EXACTLY);
+        wheel.measure(measureSpec, measureSpec);
+        wheel.layout(0, 0, WHEEL_SIZE, WHEEL_SIZE);
+
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < index + 2; i++)
+            sections.add(new WheelColorSection(i % 2 == 0 ? android.R.color.holo_red_light : android.R.color.holo_blue_light));
+        wheel.setWheelSections(sections);
+        wheel.generateWheel();
+        return wheel;
+    }
+}
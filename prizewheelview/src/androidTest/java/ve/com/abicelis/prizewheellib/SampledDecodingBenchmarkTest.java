@@ -0,0 +1,97 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares decoding a large JPEG at full size and cropping it, against decoding it subsampled
+ * to the section size with {@link ImageUtil#decodeSampledBitmapFromFile(String, int, int)}.
+ * Timings are written to logcat, tag {@value #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SampledDecodingBenchmarkTest {
+
+    private static final String TAG = "PrizeWheelBenchmark";
+    private static final int RUNS = 5;
+    private static final int SECTION_WIDTH = 320;
+    private static final int SECTION_HEIGHT = 280;
+
+    private File jpeg;
+
+    @Before
+    public void createLargeJpeg() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        jpeg = new File(context.getCacheDir(), "benchmark_4000x3000.jpg");
+
+        Bitmap bitmap = Bitmap.createBitmap(4000, 3000, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        for(int i = 0; i < 200; i++) {
+            paint.setColor(Color.HSVToColor(new float[] {i * 7 % 360, 0.8f, 0.9f}));
+            canvas.drawCircle((i * 131) % 4000, (i * 71) % 3000, 50 + i * 3, paint);
+        }
+
+        FileOutputStream out = new FileOutputStream(jpeg);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        } finally {
+            out.close();
+        }
+        bitmap.recycle();
+    }
+
+    @After
+    public void deleteLargeJpeg() {
+        jpeg.delete();
+    }
+
+    @Test
+    public void sampledDecoding_isSmallerAndFaster() throws Exception {
+        long fullNanos = 0, sampledNanos = 0;
+        int fullBytes = 0, sampledBytes = 0;
+
+        for(int i = 0; i < RUNS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            Bitmap full = BitmapFactory.decodeFile(jpeg.getPath());
+            Bitmap fullCropped = ImageUtil.getCenterCropBitmap(full, SECTION_WIDTH, SECTION_HEIGHT);
+            fullNanos += SystemClock.elapsedRealtimeNanos() - start;
+            fullBytes = full.getByteCount();
+            full.recycle();
+            fullCropped.recycle();
+
+            start = SystemClock.elapsedRealtimeNanos();
+            Bitmap sampled = ImageUtil.decodeSampledBitmapFromFile(jpeg.getPath(), SECTION_WIDTH, SECTION_HEIGHT);
+            Bitmap sampledCropped = ImageUtil.getCenterCropBitmap(sampled, SECTION_WIDTH, SECTION_HEIGHT);
+            sampledNanos += SystemClock.elapsedRealtimeNanos() - start;
+            sampledBytes = sampled.getByteCount();
+            assertTrue(sampled.getWidth() >= SECTION_WIDTH && sampled.getHeight() >= SECTION_HEIGHT);
+            sampled.recycle();
+            sampledCropped.recycle();
+        }
+
+        Log.i(TAG, "4000x3000 JPEG to " + SECTION_WIDTH + "x" + SECTION_HEIGHT + " section."
+                + " Full decode: " + (fullNanos / RUNS / 1000) + "us, " + fullBytes + " bytes."
+                + " Sampled decode: " + (sampledNanos / RUNS / 1000) + "us, " + sampledBytes + " bytes.");
+
+        assertTrue(sampledBytes < fullBytes);
+        assertTrue(sampledNanos < fullNanos);
+    }
+}
@@ -0,0 +1,432 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import ve.com.abicelis.prizewheellib.model.WheelBitmapSection;
+import ve.com.abicelis.prizewheellib.model.WheelColorSection;
+import ve.com.abicelis.prizewheellib.model.WheelDrawableSection;
+import ve.com.abicelis.prizewheellib.model.WheelFileSection;
+import ve.com.abicelis.prizewheellib.model.WheelSection;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times the wheel generation and the {@link ImageUtil} primitives it uses, on a device.
+ * Timings are written to logcat, tag {@value #TAG}, so they can be compared between builds.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WheelGenerationBenchmarkTest {
+
+    private static final String TAG = "PrizeWheelBenchmark";
+    private static final int WHEEL_SIZE = 1000;
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+
+    @Test
+    public void generateWheel() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+
+        for(int sectionCount : new int[] {4, 8, 12}) {
+            long nanos = timeGeneration(context, createBitmapSections(sectionCount, 1024, 768));
+            Log.i(TAG, "generateWheel " + WHEEL_SIZE + "px, " + sectionCount + " bitmap sections: " + (nanos / 1000) + "us");
+        }
+    }
+
+    @Test
+    public void generateLargeWheel() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+
+        for(int sectionCount : new int[] {12, 50, 200}) {
+            long nanos = timeGeneration(context, createBitmapSections(sectionCount, 256, 192));
+            Log.i(TAG, "generateLargeWheel " + WHEEL_SIZE + "px, " + sectionCount + " bitmap sections: " + (nanos / 1000) + "us");
+
+            nanos = timeGeneration(context, createLabeledColorSections(sectionCount));
+            Log.i(TAG, "generateLargeWheel " + WHEEL_SIZE + "px, " + sectionCount + " labeled color sections: " + (nanos / 1000) + "us");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void generationAllocations() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        List<WheelSection> sections = createBitmapSections(12, 1024, 768);
+        timeGeneration(context, sections);          //Warm up, so only the generation itself is measured
+        WheelBitmapPool.clear();
+        Runtime.getRuntime().gc();
+
+        //Image sections are painted straight from their sources, so the wheel's own bitmap should be
+        //the only large allocation. Native memory is sampled, bitmap pixels live there on API 26+
+        HeapSampler sampler = new HeapSampler();
+        sampler.start();
+        Debug.resetThreadAllocSize();
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+
+        WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+        assertTrue(renderer.prepare());
+        Bitmap wheel = renderer.drawToBitmap();
+
+        Debug.stopAllocCounting();
+        int javaAllocCount = Debug.getThreadAllocCount();
+        long javaAllocBytes = Debug.getThreadAllocSize();
+        long nativePeakBytes = sampler.finish();
+        long wheelBytes = WheelBitmapPool.getByteCount(wheel);
+        wheel.recycle();
+
+        Log.i(TAG, "generationAllocations " + WHEEL_SIZE + "px, 12 bitmap sections: wheel " + wheelBytes + " bytes, java "
+                + javaAllocBytes + " bytes in " + javaAllocCount + " objects, native peak " + nativePeakBytes + " bytes");
+        assertTrue("java " + javaAllocBytes + " bytes", javaAllocBytes < 2 * wheelBytes);
+        assertTrue("native " + nativePeakBytes + " bytes", nativePeakBytes < 2 * wheelBytes);
+    }
+
+    @Test
+    public void updateSection() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+
+        for(int sectionCount : new int[] {12, 50}) {
+            List<WheelSection> sections = createBitmapSections(sectionCount, 1024, 768);
+            WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                    -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+            assertTrue(renderer.prepare());
+            Bitmap wheel = renderer.drawToBitmap();
+
+            List<WheelSection> replacements = createBitmapSections(WARMUP_RUNS + RUNS, 1024, 768);
+            long totalNanos = 0;
+            for(int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                WheelSection replacement = replacements.get(i);
+                renderer.applySection(i, replacement, renderer.prepareSectionUpdate(i, replacement));
+                renderer.redrawSection(wheel, i);
+                if(i >= WARMUP_RUNS)
+                    totalNanos += SystemClock.elapsedRealtimeNanos() - start;
+            }
+            wheel.recycle();
+
+            Log.i(TAG, "updateSection " + WHEEL_SIZE + "px, " + sectionCount + " bitmap sections: " + (totalNanos / RUNS / 1000) + "us"
+                    + ", full generation: " + (timeGeneration(context, sections) / 1000) + "us");
+        }
+    }
+
+    @Test
+    public void regenerateWheel() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        List<WheelSection> sections = createBitmapSections(12, 1024, 768);
+        long unpooledNanos = timeGeneration(context, sections);
+
+        //Each generation gives its bitmap back to the pool, so the next one draws over it
+        WheelBitmapPool.clear();
+        int hitCount = WheelBitmapPool.getHitCount();
+        Bitmap previous = null;
+        long totalNanos = 0;
+        for(int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                    -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+            assertTrue(renderer.prepare());
+            Bitmap wheel = renderer.drawToBitmap();
+            if(i >= WARMUP_RUNS)
+                totalNanos += SystemClock.elapsedRealtimeNanos() - start;
+
+            if(previous != null)
+                assertSame(previous, wheel);
+            WheelBitmapPool.release(wheel);
+            previous = wheel;
+        }
+        assertEquals(WARMUP_RUNS + RUNS - 1, WheelBitmapPool.getHitCount() - hitCount);
+        WheelBitmapPool.clear();
+
+        Log.i(TAG, "regenerateWheel " + WHEEL_SIZE + "px, 12 bitmap sections: pooled " + (totalNanos / RUNS / 1000) + "us"
+                + ", unpooled " + (unpooledNanos / 1000) + "us");
+    }
+
+    @Test
+    public void sharedSliceGeometry() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        List<WheelSection> sections = createLabeledColorSections(360);
+        long sharedNanos = 0;
+        long computedNanos = 0;
+
+        for(int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            //Geometry computed again for every wheel
+            WheelSliceGeometry.clear();
+            long start = SystemClock.elapsedRealtimeNanos();
+            WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                    -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+            assertTrue(renderer.prepare());
+            Bitmap wheel = renderer.drawToBitmap();
+            if(i >= WARMUP_RUNS)
+                computedNanos += SystemClock.elapsedRealtimeNanos() - start;
+            WheelBitmapPool.release(wheel);
+
+            //Geometry shared with the previous wheel of the same size and sections
+            int hitCount = WheelSliceGeometry.getHitCount();
+            start = SystemClock.elapsedRealtimeNanos();
+            renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                    -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+            assertTrue(renderer.prepare());
+            wheel = renderer.drawToBitmap();
+            if(i >= WARMUP_RUNS)
+                sharedNanos += SystemClock.elapsedRealtimeNanos() - start;
+            WheelBitmapPool.release(wheel);
+            assertEquals(hitCount + 1, WheelSliceGeometry.getHitCount());
+        }
+
+        Log.i(TAG, "sharedSliceGeometry " + WHEEL_SIZE + "px, 360 labeled color sections: shared " + (sharedNanos / RUNS / 1000) + "us"
+                + ", computed " + (computedNanos / RUNS / 1000) + "us");
+    }
+
+    @Test
+    public void memoryModes() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        List<WheelSection> sections = createBitmapSections(12, 1024, 768);
+
+        WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+        assertTrue(renderer.prepare());
+        Bitmap argbWheel = renderer.drawToBitmap();
+
+        renderer.setOpaqueBackground(Color.WHITE);
+        Bitmap rgbWheel = renderer.drawToBitmap();
+        assertEquals(Bitmap.Config.RGB_565, rgbWheel.getConfig());
+        assertEquals(argbWheel.getByteCount() / 2, rgbWheel.getByteCount());
+        assertEquals(Color.WHITE, rgbWheel.getPixel(0, 0));
+
+        String hardware = "unavailable";
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            Bitmap hardwareWheel = argbWheel.copy(Bitmap.Config.HARDWARE, false);
+            hardware = "upload " + ((SystemClock.elapsedRealtimeNanos() - start) / 1000) + "us, " + WheelBitmapPool.getByteCount(hardwareWheel) + " bytes of graphics memory";
+            hardwareWheel.recycle();
+        }
+
+        Log.i(TAG, "memoryModes " + WHEEL_SIZE + "px: ARGB_8888 " + WheelBitmapPool.getByteCount(argbWheel) + " bytes, RGB_565 "
+                + WheelBitmapPool.getByteCount(rgbWheel) + " bytes, HARDWARE " + hardware);
+        argbWheel.recycle();
+        rgbWheel.recycle();
+    }
+
+    @Test
+    public void decodeSourceSections() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        List<WheelSection> sections = createFileSections(context, 12, 1024, 768);
+        WheelBitmapCache.clear();
+
+        //The wheel is shown with placeholders first, then each file is decoded and drawn over its placeholder
+        long start = SystemClock.elapsedRealtimeNanos();
+        WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+        assertTrue(renderer.prepare());
+        Bitmap wheel = renderer.drawToBitmap();
+        long shownNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        start = SystemClock.elapsedRealtimeNanos();
+        for(int i = 0; i < sections.size(); i++)
+            assertNotNull(renderer.prepareSectionUpdate(i, sections.get(i)).paint.getShader());
+        long sequentialNanos = SystemClock.elapsedRealtimeNanos() - start;
+        WheelBitmapCache.clear();
+
+        start = SystemClock.elapsedRealtimeNanos();
+        List<Future<WheelRenderer.PreparedSection>> tasks = new ArrayList<>();
+        for(int i = 0; i < sections.size(); i++) {
+            final WheelRenderer sectionRenderer = renderer;
+            final int index = i;
+            final WheelSection section = sections.get(i);
+            tasks.add(WheelExecutors.getDecodeExecutor().submit(new Callable<WheelRenderer.PreparedSection>() {
+                @Override
+                public WheelRenderer.PreparedSection call() throws Exception {
+                    return sectionRenderer.prepareSectionUpdate(index, section);
+                }
+            }));
+        }
+        for(int i = 0; i < tasks.size(); i++) {
+            WheelRenderer.PreparedSection prepared = tasks.get(i).get();
+            assertNotNull(prepared.paint.getShader());
+            renderer.applySection(i, sections.get(i), prepared);
+            renderer.redrawSection(wheel, i);
+        }
+        long parallelNanos = SystemClock.elapsedRealtimeNanos() - start;
+        wheel.recycle();
+        WheelBitmapCache.clear();
+
+        Log.i(TAG, "decodeSourceSections " + WHEEL_SIZE + "px, 12 files 1024x768: wheel shown after " + (shownNanos / 1000) + "us"
+                + ", sequential decode " + (sequentialNanos / 1000) + "us, parallel decode and redraw " + (parallelNanos / 1000) + "us");
+    }
+
+    @Test
+    public void prepareSectionsInParallel() throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        for(int sectionCount : new int[] {4, 8, 12}) {
+            List<WheelSection> sections = createDrawableSections(sectionCount);
+            long sequentialNanos = 0;
+            long parallelNanos = 0;
+
+            for(int run = 0; run < WARMUP_RUNS + RUNS; run++) {
+                //Drawables decoded one after the other, on the calling thread, as a synchronous generation does
+                WheelBitmapCache.clear();
+                long start = SystemClock.elapsedRealtimeNanos();
+                WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                        -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+                assertTrue(renderer.prepare(false));
+                Bitmap wheel = renderer.drawToBitmap();
+                if(run >= WARMUP_RUNS)
+                    sequentialNanos += SystemClock.elapsedRealtimeNanos() - start;
+                WheelBitmapPool.release(wheel);
+
+                //Drawables forked to the decode threads and joined in order, as a background generation does
+                WheelBitmapCache.clear();
+                start = SystemClock.elapsedRealtimeNanos();
+                renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                        -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+                assertTrue(renderer.prepare(true));
+                wheel = renderer.drawToBitmap();
+                if(run >= WARMUP_RUNS)
+                    parallelNanos += SystemClock.elapsedRealtimeNanos() - start;
+                WheelBitmapPool.release(wheel);
+            }
+            WheelBitmapCache.clear();
+
+            Log.i(TAG, "prepareSectionsInParallel " + WHEEL_SIZE + "px, " + sectionCount + " drawable sections: sequential "
+                    + (sequentialNanos / RUNS / 1000) + "us, parallel " + (parallelNanos / RUNS / 1000) + "us");
+        }
+    }
+
+    @Test
+    public void imageUtil() throws Exception {
+        Bitmap source = createBitmap(1024, 768, Color.RED);
+        Rect sliceRect = ImageUtil.getArcBoundingRect(new RectF(0, 0, WHEEL_SIZE, WHEEL_SIZE), 75, 30);
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for(int i = 0; i < RUNS; i++)
+            ImageUtil.getCenterCropBitmap(source, sliceRect.width(), sliceRect.height()).recycle();
+        Log.i(TAG, "getCenterCropBitmap 1024x768 to " + sliceRect.width() + "x" + sliceRect.height() + ": "
+                + ((SystemClock.elapsedRealtimeNanos() - start) / RUNS / 1000) + "us");
+
+        Bitmap mask = createBitmap(WHEEL_SIZE, WHEEL_SIZE, Color.TRANSPARENT);
+        start = SystemClock.elapsedRealtimeNanos();
+        for(int i = 0; i < RUNS; i++)
+            ImageUtil.cropTransparentPixelsFromImage(mask);
+        Log.i(TAG, "cropTransparentPixelsFromImage " + WHEEL_SIZE + "px: " + ((SystemClock.elapsedRealtimeNanos() - start) / RUNS / 1000) + "us");
+
+        source.recycle();
+        mask.recycle();
+    }
+
+
+    /**
+     * @return The average time to prepare and draw a wheel with the given sections
+     */
+    private static long timeGeneration(Context context, List<WheelSection> sections) {
+        long totalNanos = 0;
+
+        for(int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            WheelRenderer renderer = new WheelRenderer(context, sections, WHEEL_SIZE, WHEEL_SIZE, -1, 0, android.R.color.black, 2,
+                    -1, Constants.DEFAULT_LABEL_TEXT_SIZE_DP);
+            assertTrue(renderer.prepare());
+            Bitmap wheel = renderer.drawToBitmap();
+            if(i >= WARMUP_RUNS)
+                totalNanos += SystemClock.elapsedRealtimeNanos() - start;
+            wheel.recycle();
+        }
+        return totalNanos / RUNS;
+    }
+
+    /**
+     * Polls the native heap on its own thread, keeping the highest growth seen since it was started
+     */
+    private static class HeapSampler extends Thread {
+        private final long startBytes = Debug.getNativeHeapAllocatedSize();
+        private volatile boolean running = true;
+        private volatile long peakBytes;
+
+        @Override
+        public void run() {
+            while(running) {
+                peakBytes = Math.max(peakBytes, Debug.getNativeHeapAllocatedSize() - startBytes);
+                SystemClock.sleep(1);
+            }
+        }
+
+        /**
+         * @return The highest native heap growth seen, in bytes
+         */
+        long finish() throws InterruptedException {
+            peakBytes = Math.max(peakBytes, Debug.getNativeHeapAllocatedSize() - startBytes);
+            running = false;
+            join();
+            return peakBytes;
+        }
+    }
+
+    private static List<WheelSection> createBitmapSections(int count, int width, int height) {
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < count; i++)
+            sections.add(new WheelBitmapSection(createBitmap(width, height, Color.HSVToColor(new float[] {i * 360f / count, 0.8f, 0.9f}))));
+        return sections;
+    }
+
+    private static List<WheelSection> createFileSections(Context context, int count, int width, int height) throws IOException {
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            File file = new File(context.getCacheDir(), "benchmark_section_" + i + ".jpg");
+            Bitmap bitmap = createBitmap(width, height, Color.HSVToColor(new float[] {i * 360f / count, 0.8f, 0.9f}));
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+            } finally {
+                out.close();
+            }
+            bitmap.recycle();
+            sections.add(new WheelFileSection(file.getAbsolutePath()));
+        }
+        return sections;
+    }
+
+    private static List<WheelSection> createDrawableSections(int count) {
+        int[] drawables = new int[] {android.R.drawable.ic_menu_gallery, android.R.drawable.ic_menu_camera,
+                android.R.drawable.ic_dialog_map, android.R.drawable.ic_menu_compass};
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < count; i++)
+            sections.add(new WheelDrawableSection(drawables[i % drawables.length]));
+        return sections;
+    }
+
+    private static List<WheelSection> createLabeledColorSections(int count) {
+        int[] colors = new int[] {android.R.color.holo_red_light, android.R.color.holo_blue_light, android.R.color.holo_green_light};
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            WheelSection section = new WheelColorSection(colors[i % colors.length]);
+            section.setLabel("Prize " + (i + 1));
+            sections.add(section);
+        }
+        return sections;
+    }
+
+    private static Bitmap createBitmap(int width, int height, int color) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        return bitmap;
+    }
+}
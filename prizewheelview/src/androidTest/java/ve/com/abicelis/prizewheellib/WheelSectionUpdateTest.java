@@ -0,0 +1,71 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ve.com.abicelis.prizewheellib.model.WheelColorSection;
+import ve.com.abicelis.prizewheellib.model.WheelSection;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link PrizeWheelView#updateSection(int, WheelSection)} redraws a section of the same weight in place,
+ * and generates the whole wheel again when the weight changes, even if the section passed is the one already set
+ */
+@RunWith(AndroidJUnit4.class)
+public class WheelSectionUpdateTest {
+
+    private static final int WHEEL_SIZE = 400;
+    private static final int SECTIONS = 4;
+
+    @Test
+    public void weightChanged_sameInstance_generatesWheel() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final int[] generations = new int[1];
+                PrizeWheelView wheel = new PrizeWheelView(context);
+                wheel.setWheelMetricsListener(new WheelMetricsListener() {
+                    @Override
+                    public void onSpinMetrics(SpinMetrics metrics) {}
+
+                    @Override
+                    public void onGenerationMetrics(GenerationMetrics metrics) {
+                        generations[0]++;
+                    }
+                });
+
+                int measureSpec = View.MeasureSpec.makeMeasureSpec(WHEEL_SIZE, View.MeasureSpec.EXACTLY);
+                wheel.measure(measureSpec, measureSpec);
+                wheel.layout(0, 0, WHEEL_SIZE, WHEEL_SIZE);
+
+                List<WheelSection> sections = new ArrayList<>();
+                for(int i = 0; i < SECTIONS; i++)
+                    sections.add(new WheelColorSection(i % 2 == 0 ? android.R.color.holo_red_light : android.R.color.holo_blue_light));
+                wheel.setWheelSections(sections);
+                wheel.generateWheel();
+                assertEquals(1, generations[0]);
+
+                //Same weight, the section is redrawn in place
+                wheel.updateSection(1, new WheelColorSection(android.R.color.holo_green_light));
+                assertEquals(1, generations[0]);
+
+                //The section already set, given a new weight
+                WheelSection section = sections.get(0);
+                section.setWeight(2);
+                wheel.updateSection(0, section);
+                assertEquals(2, generations[0]);
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import ve.com.abicelis.prizewheellib.model.WheelColorSection;
+import ve.com.abicelis.prizewheellib.model.WheelSection;
+
+import static org.junit.Assert.*;
+
+/**
+ * Spins a {@link PrizeWheelView} with clockwise = true, which rotates its image by negative degrees,
+ * and checks {@link PrizeWheelView#getTotalTurns()} rounds the negative rotation down
+ */
+@RunWith(AndroidJUnit4.class)
+public class WheelTurnsTest {
+
+    private static final int WHEEL_SIZE = 400;
+    private static final int SECTIONS = 4;
+    private static final long SETTLE_TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void negativeRotation_turnsRoundedDown() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final PrizeWheelView[] wheel = new PrizeWheelView[1];
+        final CountDownLatch settled = new CountDownLatch(1);
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                wheel[0] = createWheel(context);
+                assertEquals(0, wheel[0].getTotalTurns());
+                wheel[0].setWheelEventsListener(new WheelEventsListener() {
+                    @Override
+                    public void onWheelStopped() {}
+
+                    @Override
+                    public void onWheelFlung() {}
+
+                    @Override
+                    public void onWheelSettled(int sectionIndex, double angle) {
+                        settled.countDown();
+                    }
+                });
+
+                //2 full turns, plus part of one to reach another section: between -1080 and -720 degrees
+                wheel[0].spinToSection(SECTIONS / 2, 2, 300, true, false);
+            }
+        });
+
+        assertTrue("Wheel didn't settle", settled.await(SETTLE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(-3, wheel[0].getTotalTurns());
+            }
+        });
+    }
+
+
+    private static PrizeWheelView createWheel(Context context) {
+        PrizeWheelView wheel = new PrizeWheelView(context);
+
+        int measureSpec = View.MeasureSpec.makeMeasureSpec(WHEEL_SIZE, View.MeasureSpec.EXACTLY);
+        wheel.measure(measureSpec, measureSpec);
+        wheel.layout(0, 0, WHEEL_SIZE, WHEEL_SIZE);
+
+        List<WheelSection> sections = new ArrayList<>();
+        for(int i = 0; i < SECTIONS; i++)
+            sections.add(new WheelColorSection(i % 2 == 0 ? android.R.color.holo_red_light : android.R.color.holo_blue_light));
+        wheel.setWheelSections(sections);
+        wheel.generateWheel();
+        return wheel;
+    }
+}
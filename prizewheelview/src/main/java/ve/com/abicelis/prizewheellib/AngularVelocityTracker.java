@@ -0,0 +1,89 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Tracks the angle of a touch around the wheel's center, and estimates its angular velocity
+ * from the recent samples, the way {@link android.view.VelocityTracker} estimates linear velocities.
+ * Angles are unwrapped as they're added, so drags across the 180 degree line, or around the
+ * wheel several times, are tracked in every quadrant the same way.
+ * Samples are kept in a fixed size ring buffer, so tracking a drag allocates nothing.
+ */
+class AngularVelocityTracker {
+
+    private static final int CAPACITY = 20;
+    private static final long HORIZON_MILLIS = 100;               //Only samples this recent are used to estimate the velocity
+    private static final long ASSUME_STOPPED_MILLIS = 40;         //A pause this long between samples means the touch stopped
+
+    private final long[] times = new long[CAPACITY];
+    private final double[] angles = new double[CAPACITY];         //Unwrapped, in degrees
+    private int last = -1;                                        //Index of the latest sample
+    private int count;
+
+
+    /**
+     * Drops every sample, call it when a new touch starts
+     */
+    void clear() {
+        last = -1;
+        count = 0;
+    }
+
+    /**
+     * Adds a sample, batched ones first, in the order they happened
+     * @param timeMillis When the touch was at this angle, see {@link android.view.MotionEvent#getEventTime()}
+     * @param angle The angle of the touch, in degrees counter-clockwise, see {@link WheelGeometry#getTouchAngle(double, double, int, int)}
+     * @return The degrees the touch moved since the previous sample, counter-clockwise, in the [-180, 180) range
+     */
+    double addSample(long timeMillis, double angle) {
+        double degrees = 0;
+        if(count > 0) {
+            degrees = WheelGeometry.positiveModulo(angle - angles[last] + 180) - 180;
+            angle = angles[last] + degrees;
+
+            if(timeMillis - times[last] > ASSUME_STOPPED_MILLIS)
+                count = 0;
+        }
+
+        last = (last + 1) % CAPACITY;
+        times[last] = timeMillis;
+        angles[last] = angle;
+        count = Math.min(count + 1, CAPACITY);
+        return degrees;
+    }
+
+    /**
+     * @return The angular velocity of the touch, in degrees per second counter-clockwise, fitted by least squares
+     * to the samples from the last {@value #HORIZON_MILLIS}ms. 0 if there aren't enough samples.
+     */
+    double getVelocity() {
+        if(count < 2)
+            return 0;
+
+        long lastTime = times[last];
+        double lastAngle = angles[last];
+
+        //Times and angles relative to the latest sample, so the sums keep their precision
+        int samples = 0;
+        double sumT = 0, sumA = 0, sumTT = 0, sumTA = 0;
+        for(int i = 0; i < count; i++) {
+            int index = (last - i + CAPACITY) % CAPACITY;
+            long age = lastTime - times[index];
+            if(age > HORIZON_MILLIS)
+                break;
+
+            double t = -age / 1000d;
+            double a = angles[index] - lastAngle;
+            sumT += t;
+            sumA += a;
+            sumTT += t * t;
+            sumTA += t * a;
+            samples++;
+        }
+
+        if(samples < 2)
+            return 0;
+        double denominator = samples * sumTT - sumT * sumT;
+        if(denominator <= 0)
+            return 0;
+        return (samples * sumTA - sumT * sumA) / denominator;
+    }
+}
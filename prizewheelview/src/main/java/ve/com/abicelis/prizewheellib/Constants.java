@@ -6,11 +6,31 @@ package ve.com.abicelis.prizewheellib;
 
 public class Constants {
     public static final int MINIMUM_WHEEL_SECTIONS = 2;
-    public static final int MAXIMUM_WHEEL_SECTIONS = 12;
+    public static final int MAXIMUM_WHEEL_SECTIONS = 360;
 
     public static final int WHEEL_MARGIN_FOR_MARKER_DP = 20;
+    public static final long RESIZE_REGENERATION_DELAY_MILLIS = 150;     //The wheel is generated again once its size stops changing for this long
 
     public static final float INITIAL_FLING_VELOCITY_DAMPENING = 3F;
     public static final float FLING_VELOCITY_DAMPENING = 1.025F;
 
+    //Fling physics are defined per frame of a display running at this rate, and scaled in time for any other rate
+    public static final int FLING_REFERENCE_FRAME_RATE = 60;
+    public static final float FLING_VELOCITY_PER_DEGREE = 75F;
+    public static final float FLING_MINIMUM_VELOCITY = 5F;
+
+    public static final int DEFAULT_SPIN_TURNS = 5;
+    public static final long DEFAULT_SPIN_DURATION_MILLIS = 5000;
+    public static final float SPIN_TARGET_SECTION_MARGIN = 0.1F;     //Fraction of the section's arc kept clear on both sides
+
+    public static final int DISK_CACHE_MAX_WHEELS = 5;
+
+    //Section labels get shrunk to fit small sections, and hidden below the minimum sizes
+    public static final int DEFAULT_LABEL_TEXT_SIZE_DP = 16;
+    public static final int MINIMUM_LABEL_TEXT_SIZE_DP = 7;
+    public static final int DEFAULT_LABEL_ICON_SIZE_DP = 32;
+    public static final int MINIMUM_LABEL_ICON_SIZE_DP = 10;
+    public static final float LABEL_INNER_RADIUS = 0.25F;      //Fraction of the wheel's radius kept free of labels around the center
+    public static final float LABEL_FILL = 0.8F;               //Fraction of a section's width a label may cover
+
 }
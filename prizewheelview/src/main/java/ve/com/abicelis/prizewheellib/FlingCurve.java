@@ -0,0 +1,85 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Closed form deceleration curve of a wheel fling.
+ * The angular velocity decays exponentially over time, w(t) = w0 * e^(-k*t), and the fling ends
+ * once it drops to {@link Constants#FLING_MINIMUM_VELOCITY}. Both the rotation at any given time
+ * and the total rotation are computed directly, so the result doesn't depend on the frame rate.
+ *
+ * Velocity and dampening values use the same units as
+ * {@link PrizeWheelView#flingWheel(int, boolean)} and {@link PrizeWheelView#setFlingVelocityDampening(float)},
+ * which were originally applied once per frame on a 60fps display.
+ */
+class FlingCurve implements SpinCurve {
+
+    private static final double NANOS_PER_SECOND = 1000000000d;
+
+    private double initialDegreesPerSecond;
+    private double minimumDegreesPerSecond;
+    private double decayPerSecond;
+    private long durationNanos;
+    private double totalAngle;
+
+
+    FlingCurve() {
+    }
+
+    /**
+     * @param velocity The initial fling velocity. Its sign is the direction of the rotation
+     * @param velocityDampening The fling velocity dampening, must be greater than 1
+     */
+    FlingCurve(float velocity, float velocityDampening) {
+        set(velocity, velocityDampening);
+    }
+
+    /**
+     * Recomputes the curve for a new fling, so a single instance can be reused for every fling of a wheel
+     * @param velocity The initial fling velocity. Its sign is the direction of the rotation
+     * @param velocityDampening The fling velocity dampening, must be greater than 1
+     */
+    void set(float velocity, float velocityDampening) {
+        initialDegreesPerSecond = toDegreesPerSecond(velocity);
+        minimumDegreesPerSecond = toDegreesPerSecond(Constants.FLING_MINIMUM_VELOCITY);
+        decayPerSecond = Constants.FLING_REFERENCE_FRAME_RATE * Math.log(velocityDampening);
+
+        double initialSpeed = Math.abs(initialDegreesPerSecond);
+        if(initialSpeed <= minimumDegreesPerSecond) {
+            durationNanos = 0;
+            totalAngle = 0;
+        } else {
+            durationNanos = (long) (Math.log(initialSpeed / minimumDegreesPerSecond) / decayPerSecond * NANOS_PER_SECOND);
+            totalAngle = (initialSpeed - minimumDegreesPerSecond) / decayPerSecond * Math.signum(initialDegreesPerSecond);
+        }
+    }
+
+
+    @Override
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public double getTotalAngle() {
+        return totalAngle;
+    }
+
+    @Override
+    public double getAngleAt(long elapsedNanos) {
+        if(elapsedNanos >= durationNanos)
+            return totalAngle;
+        if(elapsedNanos <= 0)
+            return 0;
+
+        double t = elapsedNanos / NANOS_PER_SECOND;
+        return initialDegreesPerSecond / decayPerSecond * (1 - Math.exp(-decayPerSecond * t));
+    }
+
+
+    /**
+     * Converts a fling velocity, which used to be applied as velocity/{@link Constants#FLING_VELOCITY_PER_DEGREE}
+     * degrees per frame, into degrees per second
+     */
+    private static double toDegreesPerSecond(float velocity) {
+        return velocity / Constants.FLING_VELOCITY_PER_DEGREE * Constants.FLING_REFERENCE_FRAME_RATE;
+    }
+}
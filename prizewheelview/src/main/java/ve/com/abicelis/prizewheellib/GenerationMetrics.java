@@ -0,0 +1,140 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Timings of one wheel generation, split by phase, and the memory used by the generated wheel,
+ * reported to a {@link WheelMetricsListener}.
+ */
+public class GenerationMetrics {
+
+    private int sectionCount;
+    private int wheelWidth, wheelHeight;
+    private boolean async;
+    private boolean diskCacheHit;
+    long decodeNanos;
+    long cropNanos;
+    long maskNanos;
+    long compositeNanos;
+    long separatorsNanos;
+    long totalNanos;
+    long wheelByteCount;
+
+
+    GenerationMetrics(int sectionCount, int wheelWidth, int wheelHeight) {
+        this.sectionCount = sectionCount;
+        this.wheelWidth = wheelWidth;
+        this.wheelHeight = wheelHeight;
+    }
+
+    void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    void setDiskCacheHit(boolean diskCacheHit) {
+        this.diskCacheHit = diskCacheHit;
+    }
+
+    /**
+     * Sections are prepared in parallel, so their timings are added from several threads
+     */
+    synchronized void addDecodeNanos(long nanos) {
+        decodeNanos += nanos;
+    }
+
+    synchronized void addCropNanos(long nanos) {
+        cropNanos += nanos;
+    }
+
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    public int getWheelWidth() {
+        return wheelWidth;
+    }
+
+    public int getWheelHeight() {
+        return wheelHeight;
+    }
+
+    /**
+     * @return true if the wheel was generated on a background thread
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return true if the wheel was loaded from the {@link WheelDiskCache}, in which case every phase but the total is 0
+     */
+    public boolean isDiskCacheHit() {
+        return diskCacheHit;
+    }
+
+    /**
+     * @return Time spent getting section images: cache lookups and decoding, in nanoseconds.
+     * Sections are prepared in parallel, so this and the crop and mask times are summed across threads
+     */
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * @return Time spent center cropping section images, in nanoseconds
+     */
+    public long getCropNanos() {
+        return cropNanos;
+    }
+
+    /**
+     * @return Time spent computing the sections' slices and setting up their shaders, in nanoseconds
+     */
+    public long getMaskNanos() {
+        return maskNanos;
+    }
+
+    /**
+     * @return Time spent drawing the sections into the wheel bitmap, in nanoseconds. 0 in the LIVE render mode
+     */
+    public long getCompositeNanos() {
+        return compositeNanos;
+    }
+
+    /**
+     * @return Time spent drawing the separator lines and the border into the wheel bitmap, in nanoseconds. 0 in the LIVE render mode
+     */
+    public long getSeparatorsNanos() {
+        return separatorsNanos;
+    }
+
+    /**
+     * @return Time spent on the whole generation, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return The memory used by the wheel's bitmap, in bytes. Graphics memory in the HARDWARE memory mode, 0 in the LIVE render mode
+     */
+    public long getWheelByteCount() {
+        return wheelByteCount;
+    }
+
+
+    @Override
+    public String toString() {
+        return
+                "SectionCount= " +          sectionCount +
+                ", WheelSize= " +           wheelWidth + "x" + wheelHeight +
+                ", Async= " +               async +
+                ", DiskCacheHit= " +        diskCacheHit +
+                ", DecodeNanos= " +         decodeNanos +
+                ", CropNanos= " +           cropNanos +
+                ", MaskNanos= " +           maskNanos +
+                ", CompositeNanos= " +      compositeNanos +
+                ", SeparatorsNanos= " +     separatorsNanos +
+                ", TotalNanos= " +          totalNanos +
+                ", WheelByteCount= " +      wheelByteCount;
+    }
+}
@@ -1,13 +1,23 @@
 package ve.com.abicelis.prizewheellib;
 
+import android.content.res.Resources;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.media.ThumbnailUtils;
+import android.os.Build;
+import android.support.annotation.DrawableRes;
+import android.util.TypedValue;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
+
+import ve.com.abicelis.prizewheellib.model.WheelStreamSection;
 
 /**
  * Created by abicelis on 28/7/2017.
@@ -17,62 +27,34 @@ public class ImageUtil {
 
 
     /**
-     * Evaluates a Bitmap, returns a Rect with its transparency cropped
-     * Not my code, extracted from:
-     * https://github.com/AlvaroMenezes/CropTrimTransparentImage
+     * Evaluates a Bitmap, returns a Rect with its transparency cropped.
+     * The pixels are read in a single bulk copy, then scanned.
+     * NOTE: To get the bounds of an arc, prefer {@link #getArcBoundingRect(RectF, float, float)}, which needs no bitmap
      */
     public static Rect cropTransparentPixelsFromImage(Bitmap bitmap){
-
-        int height = bitmap.getHeight();
         int width = bitmap.getWidth();
-        int[] empty = new int[width];
-        int[] buffer = new int[width];
-        Arrays.fill(empty,0);
-        int top = 0;
-        int left = 0;
-        int bottom = height;
-        int right = width;
-
-        for (int y = 0; y < height; y++) {
-            bitmap.getPixels(buffer, 0, width, 0, y, width, 1);
-            if (!Arrays.equals(empty, buffer)) {
-                top = y;
-                break;
-            }
-        }
-
-        for (int y = height - 1; y > top; y--) {
-            bitmap.getPixels(buffer, 0, width, 0, y, width, 1);
-            if (!Arrays.equals(empty, buffer)) {
-                bottom = y;
-                break;
-            }
-        }
-
-        int bufferSize = bottom -top +1;
-        empty = new int[bufferSize];
-        buffer = new int[bufferSize];
-        Arrays.fill(empty,0);
-
-        for (int x = 0; x < width; x++) {
-            bitmap.getPixels(buffer, 0, 1, x, top + 1, 1, bufferSize);
-            if (!Arrays.equals(empty, buffer)) {
-                left = x;
-                break;
-            }
-        }
+        int height = bitmap.getHeight();
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
 
-        for (int x = width - 1; x > left; x--) {
-            bitmap.getPixels(buffer, 0, 1, x, top + 1, 1, bufferSize);
-            if (!Arrays.equals(empty, buffer)) {
-                right = x;
-                break;
-            }
-        }
+        int[] bounds = new int[4];
+        WheelGeometry.getOpaqueBounds(pixels, width, height, bounds);
+        return new Rect(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
 
-        return new Rect(left, top, right, bottom);
-        //Bitmap cropedBitmap = Bitmap.createBitmap(bitmap, left, top, right-left, bottom-top);
-        //return cropedBitmap;
+    /**
+     * Computes the Rect enclosing a pie slice drawn with
+     * {@link Canvas#drawArc(RectF, float, float, boolean, android.graphics.Paint)} (using its center),
+     * from the slice's geometry, without drawing it.
+     * @param oval The bounds of the oval the arc belongs to
+     * @param startAngle Where the arc starts, in degrees
+     * @param sweepAngle The degrees the arc sweeps, clockwise
+     * @return A Rect enclosing the slice
+     */
+    public static Rect getArcBoundingRect(RectF oval, float startAngle, float sweepAngle) {
+        float[] bounds = new float[4];
+        WheelGeometry.getSliceBounds(oval.left, oval.top, oval.right, oval.bottom, startAngle, sweepAngle, bounds);
+        return new Rect((int) Math.floor(bounds[0]), (int) Math.floor(bounds[1]), (int) Math.ceil(bounds[2]), (int) Math.ceil(bounds[3]));
     }
 
 
@@ -99,13 +81,187 @@ public class ImageUtil {
     }
 
 
+    /**
+     * Computes a Matrix which center crops a source of the given size onto a destination Rect,
+     * the same way {@link #getCenterCropBitmap(Bitmap, float, float)} would, without creating a new Bitmap.
+     * Meant to be used as a {@link android.graphics.BitmapShader}'s local matrix.
+     * @param srcWidth The source's width
+     * @param srcHeight The source's height
+     * @param dest The destination Rect
+     * @param outMatrix The Matrix to set
+     */
+    public static void getCenterCropMatrix(int srcWidth, int srcHeight, Rect dest, Matrix outMatrix) {
+        float scale = Math.max((float)dest.width()/srcWidth, (float)dest.height()/srcHeight);
+        float dx = dest.left + (dest.width() - srcWidth*scale)/2f;
+        float dy = dest.top + (dest.height() - srcHeight*scale)/2f;
+
+        outMatrix.setScale(scale, scale);
+        outMatrix.postTranslate(dx, dy);
+    }
+
+
+    /**
+     * Decodes an image resource (jpg, png, webp...) subsampled so it is as small as possible, while
+     * still covering the given size. Meant for images which are going to be center cropped to that size.
+     * @param res The Resources holding the image
+     * @param resId The id of the image resource
+     * @param reqWidth The width the image is going to be cropped to
+     * @param reqHeight The height the image is going to be cropped to
+     * @return The decoded Bitmap, or null if the resource is not an image file (an xml drawable, for example)
+     */
+    public static Bitmap decodeSampledBitmapFromResource(Resources res, @DrawableRes int resId, int reqWidth, int reqHeight) {
+        TypedValue value = new TypedValue();
+        res.getValue(resId, value, true);
+        if(value.string == null || value.string.toString().endsWith(".xml"))
+            return null;
+
+        //Read the image's size only
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, resId, options);
+        if(options.outWidth <= 0 || options.outHeight <= 0)
+            return null;
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        if(setReusableBitmap(options)) {
+            try {
+                Bitmap bitmap = BitmapFactory.decodeResource(res, resId, options);
+                if(bitmap != null)
+                    return bitmap;
+            } catch (IllegalArgumentException ignored) {}      //The pooled bitmap could not be decoded into after all
+            WheelBitmapPool.release(options.inBitmap);
+            options.inBitmap = null;
+        }
+        return BitmapFactory.decodeResource(res, resId, options);
+    }
+
+    /**
+     * Decodes an image file subsampled so it is as small as possible, while still covering the given size.
+     * Meant for images which are going to be center cropped to that size.
+     * @param path The path of the image file
+     * @param reqWidth The width the image is going to be cropped to
+     * @param reqHeight The height the image is going to be cropped to
+     * @return The decoded Bitmap, or null if the file could not be decoded
+     */
+    public static Bitmap decodeSampledBitmapFromFile(String path, int reqWidth, int reqHeight) {
+
+        //Read the image's size only
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if(options.outWidth <= 0 || options.outHeight <= 0)
+            return null;
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        if(setReusableBitmap(options)) {
+            try {
+                Bitmap bitmap = BitmapFactory.decodeFile(path, options);
+                if(bitmap != null)
+                    return bitmap;
+            } catch (IllegalArgumentException ignored) {}      //The pooled bitmap could not be decoded into after all
+            WheelBitmapPool.release(options.inBitmap);
+            options.inBitmap = null;
+        }
+        return BitmapFactory.decodeFile(path, options);
+    }
+
+    /**
+     * Decodes an image stream subsampled so it is as small as possible, while still covering the given size.
+     * Meant for images which are going to be center cropped to that size.
+     * @param streamSupplier Opens the image's stream. It's opened twice: to read the image's size, then to decode it
+     * @param reqWidth The width the image is going to be cropped to
+     * @param reqHeight The height the image is going to be cropped to
+     * @return The decoded Bitmap, or null if the stream could not be decoded
+     * @throws IOException If the stream could not be opened
+     */
+    public static Bitmap decodeSampledBitmapFromStream(WheelStreamSection.StreamSupplier streamSupplier, int reqWidth, int reqHeight) throws IOException {
+
+        //Read the image's size only
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decodeStream(streamSupplier, options);
+        if(options.outWidth <= 0 || options.outHeight <= 0)
+            return null;
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        if(setReusableBitmap(options)) {
+            try {
+                Bitmap bitmap = decodeStream(streamSupplier, options);
+                if(bitmap != null)
+                    return bitmap;
+            } catch (IllegalArgumentException ignored) {}      //The pooled bitmap could not be decoded into after all
+            WheelBitmapPool.release(options.inBitmap);
+            options.inBitmap = null;
+        }
+        return decodeStream(streamSupplier, options);
+    }
+
+    private static Bitmap decodeStream(WheelStreamSection.StreamSupplier streamSupplier, BitmapFactory.Options options) throws IOException {
+        InputStream stream = streamSupplier.openStream();
+        if(stream == null)
+            throw new IOException("No stream to decode");
+
+        try {
+            return BitmapFactory.decodeStream(stream, null, options);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Makes a subsampled decode reuse a bitmap from the {@link WheelBitmapPool}, when one is large enough.
+     * The decoded bitmap is mutable, so it can be given back to the pool once it's no longer needed.
+     * Only done on API 19+, older versions can only decode into a bitmap of the exact same size.
+     * @param options The decode options, with the image's size and the sample size already set
+     * @return true if a pooled bitmap was set as {@link BitmapFactory.Options#inBitmap}
+     */
+    private static boolean setReusableBitmap(BitmapFactory.Options options) {
+        options.inMutable = true;
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT)
+            return false;
+
+        int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        options.inBitmap = WheelBitmapPool.getReusable(width, height, Bitmap.Config.ARGB_8888);
+        return options.inBitmap != null;
+    }
+
+    /**
+     * Calculates the largest power of 2 sample size which keeps both of the image's dimensions
+     * equal or larger than the required ones, so the subsampled image can still be center cropped to them.
+     * @param width The image's width
+     * @param height The image's height
+     * @param reqWidth The required width
+     * @param reqHeight The required height
+     * @return A sample size to use as {@link BitmapFactory.Options#inSampleSize}
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+
+        if (height > reqHeight && width > reqWidth) {
+            int halfHeight = height / 2;
+            int halfWidth = width / 2;
+
+            while ((halfHeight / inSampleSize) >= reqHeight && (halfWidth / inSampleSize) >= reqWidth) {
+                inSampleSize *= 2;
+            }
+        }
+
+        return inSampleSize;
+    }
+
+
     public static Bitmap drawableToBitmap(Drawable drawable) {
 
         if (drawable instanceof BitmapDrawable) {
             return ((BitmapDrawable)drawable).getBitmap();
         }
 
-        Bitmap bitmap = Bitmap.createBitmap(drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight(), Bitmap.Config.ARGB_8888);
+        Bitmap bitmap = WheelBitmapPool.acquire(drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight(), Bitmap.Config.ARGB_8888);
         Canvas canvas = new Canvas(bitmap);
         drawable.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
         drawable.draw(canvas);
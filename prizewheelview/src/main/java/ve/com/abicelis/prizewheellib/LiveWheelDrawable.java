@@ -0,0 +1,52 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * A Drawable which draws the wheel on every frame from a prepared {@link WheelRenderer}'s
+ * cached per-section Paints (shaders), instead of from a pre-generated bitmap.
+ * Rotating it only changes the canvas transform, no wheel pixels are regenerated.
+ */
+class LiveWheelDrawable extends Drawable {
+
+    private final WheelRenderer mRenderer;
+
+    LiveWheelDrawable(WheelRenderer renderer) {
+        mRenderer = renderer;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        mRenderer.draw(canvas);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return mRenderer.getWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return mRenderer.getHeight();
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        //Not supported
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        //Not supported
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
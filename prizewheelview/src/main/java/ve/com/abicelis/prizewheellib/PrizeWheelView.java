@@ -1,40 +1,40 @@
 package ve.com.abicelis.prizewheellib;
 
 import android.content.Context;
-import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
-import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
-import android.graphics.Rect;
-import android.graphics.RectF;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.support.annotation.ColorRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
 import android.util.AttributeSet;
-import android.view.GestureDetector;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewTreeObserver;
+import android.view.ViewConfiguration;
+import android.view.WindowManager;
 import android.widget.ImageView;
 import android.widget.RelativeLayout;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import ve.com.abicelis.prizewheellib.exceptions.InvalidWheelSectionDataException;
 import ve.com.abicelis.prizewheellib.exceptions.InvalidWheelSectionsException;
+import ve.com.abicelis.prizewheellib.model.FlingPrediction;
 import ve.com.abicelis.prizewheellib.model.MarkerPosition;
-import ve.com.abicelis.prizewheellib.model.SectionType;
-import ve.com.abicelis.prizewheellib.model.WheelBitmapSection;
-import ve.com.abicelis.prizewheellib.model.WheelColorSection;
-import ve.com.abicelis.prizewheellib.model.WheelDrawableSection;
+import ve.com.abicelis.prizewheellib.model.MemoryMode;
+import ve.com.abicelis.prizewheellib.model.RenderMode;
 import ve.com.abicelis.prizewheellib.model.WheelSection;
 
 /**
@@ -43,18 +43,34 @@ import ve.com.abicelis.prizewheellib.model.WheelSection;
 
 public class PrizeWheelView extends RelativeLayout {
 
+    private static final String TAG = PrizeWheelView.class.getSimpleName();
+
     //Internal data
     ImageView mWheel;
     ImageView mMarker;
     RelativeLayout mMarkerContainer;
     private int wheelHeight, wheelWidth;
-    private static float angleOffset;
-    private static Matrix matrix;
-    private GestureDetector gestureDetector;
+    private float angleOffset;
+    private WheelSectionAngles mSectionAngles;
+    private float[] mSectionWeights;                //Weights of the sections the wheel was last generated with
+    private final Matrix matrix = new Matrix();
     private WheelTouchListener touchListener;
-    private boolean[] quadrantTouched = new boolean[] { false, false, false, false, false };
     private boolean allowRotating = true;
-    private FlingRunnable flingRunnable;
+    private SpinFrameCallback spinCallback = new SpinFrameCallback();
+    private final WheelRotation rotation = new WheelRotation();
+    private final WheelMotion motion = new WheelMotion(rotation);
+    private Random random = new Random();
+    private Future<?> mGenerationTask;
+    private final List<Future<?>> mSourceSectionTasks = new ArrayList<>();   //FILE, URI and STREAM sections being decoded
+    private final List<Future<?>> mSectionUpdateTasks = new ArrayList<>();   //Sections passed to updateSection() being prepared
+    private int mPendingSourceSections;             //FILE, URI and STREAM sections of the wheel being shown not drawn yet
+    private boolean mHardwareUploadPending;         //The wheel being shown is moved to graphics memory once they're drawn
+    private int mGenerationId;
+    private boolean mGenerationPending;
+    private WheelRenderer mRenderer;                //Renderer of the wheel being shown, null while a placeholder is shown
+    private Bitmap mWheelBitmap;                    //Bitmap of the wheel being shown, null in the LIVE render mode. Kept while a placeholder replaces it, until the new wheel is shown
+    private boolean mWheelBitmapShared;             //The bitmap was handed to the disk cache, so it must not be drawn over
+    private int mShownWheelSize;                    //Size the wheel being shown was generated for
 
     //Configurable options
     private List<WheelSection> mWheelSections;
@@ -64,9 +80,17 @@ public class PrizeWheelView extends RelativeLayout {
     private int mWheelBorderLineThickness = 10;
     private @ColorRes int mWheelSeparatorLineColor = -1;
     private int mWheelSeparatorLineThickness = 10;
+    private @ColorRes int mLabelTextColor = -1;
+    private int mLabelTextSize = Constants.DEFAULT_LABEL_TEXT_SIZE_DP;
     private WheelEventsListener mListener;
+    private WheelMetricsListener mMetricsListener;
     private float initialFlingDampening = Constants.INITIAL_FLING_VELOCITY_DAMPENING;
     private float flingVelocityDampening = Constants.FLING_VELOCITY_DAMPENING;
+    private boolean mAsyncGeneration;
+    private RenderMode mRenderMode = RenderMode.BITMAP;
+    private MemoryMode mMemoryMode = MemoryMode.ARGB_8888;
+    private @ColorRes int mWheelBackgroundColor = -1;
+    private boolean mDiskCacheEnabled;
 
 
 
@@ -102,44 +126,108 @@ public class PrizeWheelView extends RelativeLayout {
 
         mWheel.setScaleType(ImageView.ScaleType.MATRIX);
 
-
-        matrix = new Matrix();
-        gestureDetector = new GestureDetector(context, new WheelGestureListener());
-        touchListener = new WheelTouchListener();
+        touchListener = new WheelTouchListener(ViewConfiguration.get(context));
         mWheel.setOnTouchListener(touchListener);
 
 
 
-        getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+        mMarkerContainer.setRotation(mMarkerPosition.getDegreeOffset());
+    }
 
-            @Override
-            public void onGlobalLayout() {
-                // method called more than once, but the values only need to be initialized one time
-                if (wheelHeight == 0 || wheelWidth == 0) {
 
-                    //Grab the shortest of the container dimensions
-                    int minDimen = wheelHeight = Math.min(getHeight(), getWidth());
+    /**
+     * Sizes the wheel and the marker's container to the largest square which fits the view,
+     * leaving a margin around the wheel for the marker
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int markerContainerSize = getSquareSize(MeasureSpec.getSize(widthMeasureSpec), MeasureSpec.getSize(heightMeasureSpec));
+        int wheelSize = getWheelSize(markerContainerSize);
 
-                    //Apply the margin for the marker. Use those dimensions for the wheel
-                    wheelHeight = wheelWidth = minDimen - (int)(DimensionUtil.convertDpToPixel(Constants.WHEEL_MARGIN_FOR_MARKER_DP)*2);
+        //Set straight on the LayoutParams, they're read by the measure pass below. No extra layout pass is needed
+        mWheel.getLayoutParams().width = mWheel.getLayoutParams().height = wheelSize;
+        mMarkerContainer.getLayoutParams().width = mMarkerContainer.getLayoutParams().height = markerContainerSize;
 
-                    //Resize the wheel's imageview
-                    mWheel.getLayoutParams().height = wheelHeight;
-                    mWheel.getLayoutParams().width = wheelWidth;
-                    mWheel.requestLayout();
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
 
-                    //Resize the marker's container
-                    mMarkerContainer.getLayoutParams().height = minDimen;
-                    mMarkerContainer.getLayoutParams().width = minDimen;
-                    mMarkerContainer.requestLayout();
-                    mMarkerContainer.setRotation(mMarkerPosition.getDegreeOffset());
+    /**
+     * Regenerates the wheel when its size changes. The first time the wheel gets a size it's generated
+     * right after the layout pass, later size changes (rotation, split screen) are debounced, so a wheel being resized
+     * continuously is only generated once it settles. The old wheel is scaled to fit meanwhile.
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        int wheelSize = getWheelSize(getSquareSize(w, h));
+        if(wheelSize == wheelWidth && wheelSize == wheelHeight)
+            return;
+        wheelWidth = wheelHeight = wheelSize;
+
+        removeCallbacks(mResizeRunnable);
+        if(!mCanGenerateWheel || wheelSize <= 0)
+            return;
+
+        //Generated right after this layout pass rather than during it, setting the wheel's image requests another layout
+        if(mRenderer == null && !mGenerationPending)
+            post(mResizeRunnable);
+        else {
+            applyRotation();
+            postDelayed(mResizeRunnable, Constants.RESIZE_REGENERATION_DELAY_MILLIS);
+        }
+    }
 
-                    if(mCanGenerateWheel)
-                        generateWheelImage();
-                }
-            }
-        });
+    private final Runnable mResizeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            generateWheelImage();
+        }
+    };
+
+    /**
+     * @return The side of the largest square fitting the given size. Unspecified (0) dimensions are ignored
+     */
+    private static int getSquareSize(int width, int height) {
+        if(width == 0 || height == 0)
+            return Math.max(width, height);
+        return Math.min(width, height);
+    }
+
+    /**
+     * @return The size of the wheel fitting a square of the given size, with the margin for the marker
+     */
+    private static int getWheelSize(int squareSize) {
+        return Math.max(squareSize - (int)(DimensionUtil.convertDpToPixel(Constants.WHEEL_MARGIN_FOR_MARKER_DP)*2), 0);
+    }
 
+
+
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        //A background generation was cancelled, or the wheel released, when the view got detached. Restart it
+        if(mGenerationPending && wheelHeight != 0)
+            generateWheelImage();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        boolean sourceSectionsPending = (mPendingSourceSections > 0);
+        removeCallbacks(mResizeRunnable);
+        cancelWheelGeneration();
+        spinCallback.stop();
+
+        //Give the wheel's bitmap back to the pool while the view isn't shown, it's generated again once attached
+        if(mWheelBitmap != null || sourceSectionsPending) {
+            mWheel.setImageDrawable(null);
+            releaseWheelBitmap();
+            mRenderer = null;
+            mGenerationPending = true;
+        }
+        super.onDetachedFromWindow();
     }
 
 
@@ -155,6 +243,9 @@ public class PrizeWheelView extends RelativeLayout {
      * {@link ve.com.abicelis.prizewheellib.model.WheelColorSection} and
      * {@link ve.com.abicelis.prizewheellib.model.WheelDrawableSection}.
      * As PrizeWheelView supports Bitmaps, Colors and Drawables.
+     * Images from files, Uris and streams ({@link ve.com.abicelis.prizewheellib.model.WheelFileSection},
+     * {@link ve.com.abicelis.prizewheellib.model.WheelUriSection} and {@link ve.com.abicelis.prizewheellib.model.WheelStreamSection})
+     * are decoded by the wheel in the background, in parallel, and each one is shown as soon as it's ready.
      * NOTE: Enter at least {@value ve.com.abicelis.prizewheellib.Constants#MINIMUM_WHEEL_SECTIONS}
      * WheelSections and at most {@value ve.com.abicelis.prizewheellib.Constants#MAXIMUM_WHEEL_SECTIONS}.
      * @param wheelSections a List of WheelSections
@@ -163,7 +254,59 @@ public class PrizeWheelView extends RelativeLayout {
         if(wheelSections == null || wheelSections.size() < Constants.MINIMUM_WHEEL_SECTIONS || wheelSections.size() > Constants.MAXIMUM_WHEEL_SECTIONS)
             throw new InvalidWheelSectionsException();
 
+        cancelWheelGeneration();
         mWheelSections = wheelSections;
+        mSectionAngles = null;
+        mSectionWeights = null;
+    }
+
+    /**
+     * Replaces a single section of the wheel. If the wheel was already generated, only the part of
+     * the wheel covered by the section is redrawn, instead of generating the whole wheel again.
+     * NOTE: Changing the section's weight resizes every section, so the whole wheel gets generated again.
+     * @param sectionIndex The index of the section to replace
+     * @param wheelSection The new section
+     */
+    public void updateSection(int sectionIndex, @NonNull WheelSection wheelSection) {
+        if(mWheelSections == null)
+            throw new InvalidWheelSectionsException("You must use setWheelSections() to set the sections of the wheel.");
+        if(sectionIndex < 0 || sectionIndex >= mWheelSections.size())
+            throw new IndexOutOfBoundsException("Invalid section index " + sectionIndex + ", wheel has " + mWheelSections.size() + " sections");
+
+        List<WheelSection> wheelSections = new ArrayList<>(mWheelSections);
+        wheelSections.set(sectionIndex, wheelSection);
+        mWheelSections = wheelSections;
+
+        if(mRenderer == null && !mGenerationPending)      //Not generated yet
+            return;
+
+        //Redraw the section alone if the wheel being shown can be drawn over, otherwise generate it again.
+        //The weight is checked against a copy, as the section replaced may be this same instance with a new weight
+        boolean canRedraw = (mRenderer != null && mRenderer.isPrepared() && (mWheelBitmap == null || mWheelBitmap.isMutable()));
+        if(!canRedraw || mSectionWeights == null || mSectionWeights[sectionIndex] != wheelSection.getWeight()) {
+            generateWheelImage();
+            return;
+        }
+
+        //Images read from files, Uris and streams are always decoded in the background
+        if(WheelRenderer.isSourceSection(wheelSection))
+            trackSectionUpdate(prepareSectionUpdateAsync(mRenderer, sectionIndex, wheelSection, WheelExecutors.getDecodeExecutor(), false));
+        else if(mAsyncGeneration)
+            trackSectionUpdate(prepareSectionUpdateAsync(mRenderer, sectionIndex, wheelSection, WheelExecutors.getGenerationExecutor(), false));
+        else
+            applySectionUpdate(mRenderer, sectionIndex, wheelSection, mRenderer.prepareSectionUpdate(sectionIndex, wheelSection));
+    }
+
+    /**
+     * Keeps a section update running in the background, so it can be cancelled along with the wheel generation
+     */
+    private void trackSectionUpdate(Future<?> task) {
+        Iterator<Future<?>> iterator = mSectionUpdateTasks.iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next().isDone())
+                iterator.remove();
+        }
+        mSectionUpdateTasks.add(task);
     }
 
     /**
@@ -187,10 +330,12 @@ public class PrizeWheelView extends RelativeLayout {
 
     /**
      * Set the velocity dampening when wheel is flung.
-     * NOTE: A number between 1 (no dampening) and 1.1 (lots of dampening) is recommended. Default 1.06
+     * NOTE: A number between 1 (no dampening) and 1.1 (lots of dampening) is recommended. Default 1.025
+     * Values of 1 or less would never let the wheel settle, and are ignored.
      */
     public void setFlingVelocityDampening(float dampening) {
-        initialFlingDampening = dampening;
+        if(dampening > 1)
+            flingVelocityDampening = dampening;
     }
 
     /**
@@ -199,6 +344,7 @@ public class PrizeWheelView extends RelativeLayout {
      */
     public void setWheelBorderLineColor(@ColorRes int color) {
         mWheelBorderLineColor = color;
+        updateDecorations();
     }
 
     /**
@@ -206,8 +352,10 @@ public class PrizeWheelView extends RelativeLayout {
      * DEFAULT: No border
      */
     public void setWheelBorderLineThickness(int thickness) {
-        if(thickness >= 0)
+        if(thickness >= 0) {
             mWheelBorderLineThickness = thickness;
+            updateDecorations();
+        }
     }
 
     /**
@@ -216,6 +364,7 @@ public class PrizeWheelView extends RelativeLayout {
      */
     public void setWheelSeparatorLineColor(@ColorRes int color) {
         mWheelSeparatorLineColor = color;
+        updateDecorations();
     }
 
     /**
@@ -223,8 +372,27 @@ public class PrizeWheelView extends RelativeLayout {
      * DEFAULT: No border
      */
     public void setWheelSeparatorLineThickness(int thickness) {
-        if(thickness >= 0)
+        if(thickness >= 0) {
             mWheelSeparatorLineThickness = thickness;
+            updateDecorations();
+        }
+    }
+
+    /**
+     * Set the color of the sections' text labels, see {@link WheelSection#setLabel(String)}
+     * DEFAULT: White
+     */
+    public void setWheelLabelTextColor(@ColorRes int color) {
+        mLabelTextColor = color;
+    }
+
+    /**
+     * Set the text size of the sections' text labels, in dp. Labels of small sections are shrunk to fit.
+     * DEFAULT: {@value ve.com.abicelis.prizewheellib.Constants#DEFAULT_LABEL_TEXT_SIZE_DP}dp
+     */
+    public void setWheelLabelTextSize(int textSize) {
+        if(textSize > 0)
+            mLabelTextSize = textSize;
     }
 
     /**
@@ -235,14 +403,73 @@ public class PrizeWheelView extends RelativeLayout {
         mListener = listener;
     }
 
+    /**
+     * Set a {@link ve.com.abicelis.prizewheellib.WheelMetricsListener} to receive performance metrics:
+     * frame timings of each spin, and timings of each wheel generation.
+     * DEFAULT: null, no metrics are collected
+     */
+    public void setWheelMetricsListener(WheelMetricsListener listener) {
+        mMetricsListener = listener;
+    }
+
+    /**
+     * Generate the wheel image on a background thread. A placeholder wheel (color sections only,
+     * image sections drawn as plain arcs) is shown meanwhile, and replaced once the wheel is ready.
+     * Recommended when using several image sections, or on low-end devices.
+     * DEFAULT: false, the wheel is generated on the UI thread
+     */
+    public void setAsyncGenerationEnabled(boolean enabled) {
+        mAsyncGeneration = enabled;
+    }
+
+    /**
+     * Set how the wheel is drawn. Please see {@link ve.com.abicelis.prizewheellib.model.RenderMode}
+     * for all the options. {@link ve.com.abicelis.prizewheellib.model.RenderMode#LIVE} draws the wheel
+     * from cached shaders with a rotated canvas, so spinning never resamples a big wheel bitmap.
+     * DEFAULT VALUE: {@link ve.com.abicelis.prizewheellib.model.RenderMode#BITMAP}
+     */
+    public void setRenderMode(@NonNull RenderMode renderMode) {
+        mRenderMode = renderMode;
+    }
+
+    /**
+     * Set how the wheel's bitmap is stored. Please see {@link ve.com.abicelis.prizewheellib.model.MemoryMode}
+     * for all the options. See {@link #getWheelByteCount()} for the memory used by each one.
+     * Only applies to {@link ve.com.abicelis.prizewheellib.model.RenderMode#BITMAP}.
+     * DEFAULT VALUE: {@link ve.com.abicelis.prizewheellib.model.MemoryMode#ARGB_8888}
+     */
+    public void setMemoryMode(@NonNull MemoryMode memoryMode) {
+        mMemoryMode = memoryMode;
+    }
+
+    /**
+     * Set the color around the wheel, in the {@link ve.com.abicelis.prizewheellib.model.MemoryMode#RGB_565}
+     * memory mode. Should match the color behind the view.
+     * DEFAULT: White
+     */
+    public void setWheelBackgroundColor(@ColorRes int color) {
+        mWheelBackgroundColor = color;
+    }
+
+    /**
+     * Keep generated wheels in a disk cache, so the next time the same wheel (same sections, size,
+     * border and separators) is generated it is loaded in a single read. Wheels with
+     * {@link ve.com.abicelis.prizewheellib.model.WheelBitmapSection}s are never cached.
+     * Only applies to {@link ve.com.abicelis.prizewheellib.model.RenderMode#BITMAP}.
+     * See {@link ve.com.abicelis.prizewheellib.WheelDiskCache#clear(Context)} to clear the cache.
+     * DEFAULT: false
+     */
+    public void setDiskCacheEnabled(boolean enabled) {
+        mDiskCacheEnabled = enabled;
+    }
+
     /**
      * This method MUST BE CALLED AFTER all pervious settings have been set.dp.
      * DEFAULT: No border
      */
     public void generateWheel() {
-        if(wheelHeight == 0)        //If view doesn't have width/height yet
-            mCanGenerateWheel = true;
-        else
+        mCanGenerateWheel = true;           //Also lets the wheel be generated again when the view is resized
+        if(wheelHeight != 0)                //If view has width/height already, otherwise wait for onSizeChanged()
             generateWheelImage();
     }
 
@@ -262,239 +489,586 @@ public class PrizeWheelView extends RelativeLayout {
         doFlingWheel((clockwise ? -velocity : velocity));
     }
 
+    /**
+     * Spins the wheel so it lands on a given section, with the default amount of turns
+     * ({@value ve.com.abicelis.prizewheellib.Constants#DEFAULT_SPIN_TURNS}) and duration
+     * ({@value ve.com.abicelis.prizewheellib.Constants#DEFAULT_SPIN_DURATION_MILLIS}ms),
+     * at a random spot within the section.
+     * @param sectionIndex The index of the section to land on
+     * @param clockwise the direction of the rotation.
+     */
+    public void spinToSection(int sectionIndex, boolean clockwise) {
+        spinToSection(sectionIndex, Constants.DEFAULT_SPIN_TURNS, Constants.DEFAULT_SPIN_DURATION_MILLIS, clockwise, true);
+    }
 
+    /**
+     * Spins the wheel so it lands on a given section. The whole spin is computed beforehand,
+     * and {@link WheelEventsListener#onWheelSettled(int, double)} is called with the exact section and angle it lands on.
+     * NOTE: Must be called after the wheel has been generated.
+     * @param sectionIndex The index of the section to land on
+     * @param turns The amount of full turns to spin before landing
+     * @param durationMillis How long the spin lasts
+     * @param clockwise the direction of the rotation.
+     * @param randomOffset true to land at a random spot within the section, false to land on its center
+     */
+    public void spinToSection(int sectionIndex, int turns, long durationMillis, boolean clockwise, boolean randomOffset) {
+        if(mWheelSections == null)
+            throw new InvalidWheelSectionsException("You must use setWheelSections() to set the sections of the wheel.");
+        WheelSectionAngles sectionAngles = getSectionAngles();
+        if(sectionIndex < 0 || sectionIndex >= sectionAngles.getCount())
+            throw new IndexOutOfBoundsException("Invalid section index " + sectionIndex + ", wheel has " + sectionAngles.getCount() + " sections");
+
+        //Pick the spot within the section to land on, away from its edges
+        double sectionFraction = 0.5;
+        if(randomOffset)
+            sectionFraction = Constants.SPIN_TARGET_SECTION_MARGIN + random.nextDouble() * (1 - 2 * Constants.SPIN_TARGET_SECTION_MARGIN);
+
+        double sectionStart = sectionAngles.getStartAngle(sectionIndex);
+        double targetAngle = WheelGeometry.normalizeRotation(sectionStart + sectionFraction * sectionAngles.getSweepAngle(sectionIndex) - mMarkerPosition.getDegreeOffset());
+
+        //Rotating the wheel's image by n degrees decreases the reported rotation by n degrees
+        double currentAngle = getCurrentRotation();
+        double totalAngle;
+        if(clockwise)
+            totalAngle = -(Math.max(turns, 0) * 360 + WheelGeometry.positiveModulo(targetAngle - currentAngle));
+        else
+            totalAngle = Math.max(turns, 0) * 360 + WheelGeometry.positiveModulo(currentAngle - targetAngle);
 
+        //Notify fling
+        if(mListener != null)
+            mListener.onWheelFlung();
 
-    /* Internal methods */
+        allowRotating = true;
+        long startTimeNanos = System.nanoTime();
+        motion.startTargetedSpin(totalAngle, durationMillis * 1000000, startTimeNanos);
+        spinCallback.start(startTimeNanos, sectionIndex, targetAngle);
+    }
 
     /**
-     * Rotate the wheel.
-     *
-     * @param degrees The degrees, the wheel should get rotated.
+     * Predicts where a call to {@link #flingWheel(int, boolean)} with the same parameters would
+     * make the wheel settle, from its current rotation. The result is computed directly, without
+     * simulating the fling, so it can be called right before flinging the wheel.
+     * NOTE: Must be called after the wheel has been generated.
+     * @param velocity the speed of the fling
+     * @param clockwise the direction of the rotation.
+     * @return A {@link ve.com.abicelis.prizewheellib.model.FlingPrediction} with the winning section and angle
      */
-    private void rotateWheel(float degrees) {
-        matrix.postRotate(degrees, wheelWidth / 2, wheelHeight / 2);
-        mWheel.setImageMatrix(matrix);
+    public FlingPrediction predictFling(int velocity, boolean clockwise) {
+        if(mWheelSections == null)
+            throw new InvalidWheelSectionsException("You must use setWheelSections() to set the sections of the wheel.");
+
+        FlingCurve curve = new FlingCurve((clockwise ? -velocity : velocity) / initialFlingDampening, flingVelocityDampening);
+
+        //Rotating the wheel's image by n degrees decreases the reported rotation by n degrees
+        double angle = WheelGeometry.normalizeRotation(getCurrentRotation() - curve.getTotalAngle());
+        int sectionIndex = getSectionAngles().getSectionIndex(angle, mMarkerPosition.getDegreeOffset());
+
+        return new FlingPrediction(sectionIndex, angle, curve.getTotalAngle(), curve.getDurationNanos() / 1000000);
     }
 
     /**
-     * Reset touch quadrants to false.
-     *
+     * @return The current rotation of the wheel, in the (0, 360] range, with sub-degree precision.
+     * This is the angle reported by {@link WheelEventsListener#onWheelSettled(int, double)}.
      */
-    private void resetQuadrants() {
-        for (int i = 0; i < quadrantTouched.length; i++) {
-            quadrantTouched[i] = false;
-        }
+    public double getRotationDegrees() {
+        return getCurrentRotation();
     }
 
     /**
-     * @return The selected quadrant.
+     * @return The full turns the wheel has rotated since it was created. They follow the sign of the wheel's
+     * image rotation: spins with clockwise = true ({@link #flingWheel(int, boolean)}, {@link #spinToSection(int, boolean)})
+     * and counter-clockwise drags make it negative, the other direction positive. Turns are rounded down,
+     * so a wheel rotated by -10 degrees is at turn -1.
      */
-    private static int getQuadrant(double x, double y) {
-        if (x >= 0) {
-            return y >= 0 ? 1 : 4;
-        } else {
-            return y >= 0 ? 2 : 3;
-        }
+    public long getTotalTurns() {
+        return rotation.getTurns();
     }
 
     /**
-     * @return The current rotation of the wheel.
+     * @return The memory used by the bitmap of the wheel being shown, in bytes. It's graphics memory in the
+     * {@link ve.com.abicelis.prizewheellib.model.MemoryMode#HARDWARE} memory mode. 0 in the LIVE render mode,
+     * or if the wheel wasn't generated yet. While a wheel is generated in the background, it's the memory
+     * still used by the previous one, until it's replaced.
      */
-    private static double getCurrentRotation() {
-        float[] v = new float[9];
-        matrix.getValues(v);
-        double angle = Math.round( (Math.atan2(v[Matrix.MSKEW_X], v[Matrix.MSCALE_X]) * (180 / Math.PI)) - angleOffset );
+    public long getWheelByteCount() {
+        return (mWheelBitmap != null ? WheelBitmapPool.getByteCount(mWheelBitmap) : 0);
+    }
+
+
+
+
+    /* Internal methods */
 
-        if(angle > 0)
-            return angle;
+    /**
+     * Sets the wheel's Matrix from its rotation state, instead of accumulating rotations on it
+     */
+    private void applyRotation() {
+        //Scale a wheel generated for another size to fit, until it's generated again
+        if(mShownWheelSize != 0 && mShownWheelSize != wheelWidth)
+            matrix.setScale((float) wheelWidth / mShownWheelSize, (float) wheelWidth / mShownWheelSize);
         else
-            return 360 + angle;
+            matrix.reset();
+
+        matrix.postRotate((float) rotation.getImageAngle(), wheelWidth / 2, wheelHeight / 2);
+        mWheel.setImageMatrix(matrix);
+    }
+
+    /**
+     * @return The current rotation of the wheel.
+     */
+    private double getCurrentRotation() {
+        return rotation.getRotation(angleOffset);
     }
 
     /**
      * @return The current section.
      */
     private int getCurrentSelectedSectionIndex() {
-        double sectionAngle = (360.0f / mWheelSections.size());
-        double currentRotation = getCurrentRotation() + mMarkerPosition.getDegreeOffset();
-
-        if(currentRotation > 360)
-            currentRotation = currentRotation - 360;
-
-        int selection = (int)Math.floor(currentRotation/sectionAngle);
-
-        if(selection >= mWheelSections.size())      //Rounding errors occur. Limit to items-1
-            selection = mWheelSections.size()-1;
+        return getSectionAngles().getSectionIndex(getCurrentRotation(), mMarkerPosition.getDegreeOffset());
+    }
 
-        return selection;
+    /**
+     * @return The arcs of the sections of the generated wheel, or of the sections set if it wasn't generated yet
+     */
+    private WheelSectionAngles getSectionAngles() {
+        if(mSectionAngles != null)
+            return mSectionAngles;
+
+        float[] weights = new float[mWheelSections.size()];
+        for(int i = 0; i < weights.length; i++)
+            weights[i] = mWheelSections.get(i).getWeight();
+        return new WheelSectionAngles(weights);
     }
 
     /**
-     * Generates the wheel bitmap
+     * Generates the wheel bitmap, either right away or on a worker thread
      */
     private void generateWheelImage() {
 
         if(mWheelSections == null)
             throw new InvalidWheelSectionsException("You must use setWheelSections() to set the sections of the wheel.");
 
-        // _______________________
-        // |                     |
-        // |                     |
-        // |          ^ -----    |
-        // |        *   *   <------ startAngle
-        // |      *       *      |
-        // |    *      <----*------ sweepAngle
-        // |       *  _  *       |
-        // _______________________
-
-        int wheelSectionCount = mWheelSections.size();
-        float sweepAngle = (360.0f / wheelSectionCount);
-        float startAngle = 90 - sweepAngle/2;
-        angleOffset = startAngle;                   //save angle, will be used later
-
-
-
+        //Drop any generation still running for older settings
+        cancelWheelGeneration();
+
+        WheelRenderer renderer = createRenderer();
+        angleOffset = renderer.getAngleOffset();                   //save angle, will be used later
+        mSectionAngles = renderer.getSectionAngles();
+        mSectionWeights = new float[mWheelSections.size()];
+        for(int i = 0; i < mSectionWeights.length; i++)
+            mSectionWeights[i] = mWheelSections.get(i).getWeight();
+
+        GenerationMetrics metrics = null;
+        if(mMetricsListener != null) {
+            metrics = new GenerationMetrics(mWheelSections.size(), wheelWidth, wheelHeight);
+            metrics.setAsync(mAsyncGeneration);
+            renderer.setMetrics(metrics);
+        }
 
-        //Init whitePaint for masking
-        Paint whitePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        whitePaint.setColor(Color.WHITE);
-        whitePaint.setStrokeWidth(1f);
-        whitePaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        if(mAsyncGeneration)
+            generateWheelImageAsync(renderer, metrics);
+        else {
+            mGenerationPending = false;
+
+            //The wheel being shown keeps its bitmap until the new one replaces it, see showWheel()
+            Drawable wheelDrawable;
+            try {
+                wheelDrawable = createWheelDrawable(renderer, mRenderMode, mMemoryMode, mDiskCacheEnabled, false, metrics);
+            } catch (RuntimeException e) {
+                mRenderer = null;
+                mWheel.setImageDrawable(null);
+                releaseWheelBitmap();
+                throw e;
+            }
+            showWheel(renderer, wheelDrawable);
+            loadSourceSections(renderer, mMemoryMode);
+            dispatchGenerationMetrics(metrics);
+        }
+    }
 
-        //Init maskPaint for erasing unmasked (transparent) sections
-        Paint maskPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        maskPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+    /**
+     * Shows a generated wheel, keeping its renderer and bitmap around so it can be updated cheaply.
+     * The bitmap of the wheel it replaces is given back to the {@link WheelBitmapPool} once it's no longer shown.
+     */
+    private void showWheel(WheelRenderer renderer, Drawable wheelDrawable) {
+        renderer.setMetrics(null);
+        Bitmap replacedBitmap = mWheelBitmap;
+        boolean replacedBitmapShared = mWheelBitmapShared;
+
+        mRenderer = renderer;
+        mWheelBitmap = (wheelDrawable instanceof BitmapDrawable ? ((BitmapDrawable) wheelDrawable).getBitmap() : null);
+        mWheelBitmapShared = renderer.isSharedWithDiskCache(mWheelBitmap);
+        setWheelDrawable(wheelDrawable, renderer.getWidth());
+
+        if(replacedBitmap != mWheelBitmap)
+            releaseBitmap(replacedBitmap, replacedBitmapShared);
+    }
 
-        //Init mask and result canvases
-        Bitmap mask = Bitmap.createBitmap(wheelWidth, wheelHeight, Bitmap.Config.ARGB_8888);
-        Bitmap result = Bitmap.createBitmap(wheelWidth, wheelHeight, Bitmap.Config.ARGB_8888);
-        Canvas resultCanvas = new Canvas(result);
-        Canvas maskCanvas = new Canvas(mask);
+    /**
+     * Gives the bitmap of the wheel back to the {@link WheelBitmapPool}, unless the disk cache may
+     * still be writing it. The wheel's ImageView must already have stopped showing it.
+     */
+    private void releaseWheelBitmap() {
+        releaseBitmap(mWheelBitmap, mWheelBitmapShared);
+        mWheelBitmap = null;
+        mWheelBitmapShared = false;
+    }
 
-        //Draw mask arc
-        RectF box = new RectF(2, 2, wheelWidth-2 , wheelHeight-2);
-        maskCanvas.drawArc(box, startAngle, sweepAngle, true, whitePaint);
+    private static void releaseBitmap(@Nullable Bitmap bitmap, boolean sharedWithDiskCache) {
+        if(bitmap != null && !sharedWithDiskCache)
+            WheelBitmapPool.release(bitmap);
+    }
 
-        //Get a Rect enclosing the mask
-        Rect drawnMaskRect = ImageUtil.cropTransparentPixelsFromImage(mask);
+    private void setWheelDrawable(Drawable wheelDrawable, int wheelSize) {
+        mShownWheelSize = wheelSize;
+        mWheel.setImageDrawable(wheelDrawable);
+        applyRotation();
+    }
 
+    /**
+     * @return The bitmap of the wheel being shown, ready to be drawn over. If it was handed to the
+     * disk cache, which may still be writing it, a copy of it is shown instead.
+     */
+    private Bitmap getEditableWheelBitmap() {
+        if(mWheelBitmapShared) {
+            Bitmap copy = WheelBitmapPool.acquire(mWheelBitmap.getWidth(), mWheelBitmap.getHeight(), mWheelBitmap.getConfig());
+            new Canvas(copy).drawBitmap(mWheelBitmap, 0, 0, null);
+            mWheelBitmap = copy;
+            mWheelBitmapShared = false;
+            mWheel.setImageDrawable(new BitmapDrawable(getResources(), mWheelBitmap));
+        }
+        return mWheelBitmap;
+    }
 
+    /**
+     * Applies a section prepared by {@link #updateSection(int, WheelSection)}, unless the wheel was generated again,
+     * or the section replaced by a newer update, meanwhile
+     */
+    private void applySectionUpdate(WheelRenderer renderer, int index, WheelSection section, WheelRenderer.PreparedSection preparedSection) {
+        if(renderer != mRenderer || mWheelSections.get(index) != section)
+            return;
+
+        renderer.applySection(index, section, preparedSection);
+        if(mWheelBitmap != null)
+            renderer.redrawSection(getEditableWheelBitmap(), index);
+        mWheel.invalidate();
+    }
 
-        for(WheelSection section : mWheelSections) {
+    /**
+     * Prepares a section on a worker thread, then applies it on the UI thread.
+     * It's discarded if {@link #cancelWheelGeneration()} is called meanwhile.
+     * @param sourceSection true if it's a FILE, URI or STREAM section of the wheel being loaded, see {@link #loadSourceSections(WheelRenderer, MemoryMode)}
+     */
+    private Future<?> prepareSectionUpdateAsync(final WheelRenderer renderer, final int index, final WheelSection section,
+                                                ExecutorService executor, final boolean sourceSection) {
+        final int generationId = mGenerationId;
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                WheelRenderer.PreparedSection prepared = null;
+                RuntimeException error = null;
+                try {
+                    prepared = renderer.prepareSectionUpdate(index, section);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
 
-            //If drawing a color, process is much simpler, handle it here
-            if(section.getType().equals(SectionType.COLOR)) {
-                int colorRes = ((WheelColorSection)section).getColor();
+                final WheelRenderer.PreparedSection preparedSection = prepared;
+                final RuntimeException preparationError = error;
+                WheelExecutors.getMainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(generationId != mGenerationId)
+                            return;
+
+                        if(sourceSection)
+                            applySourceSection(renderer, index, section, preparedSection, preparationError);
+                        else if(preparationError != null)
+                            onSectionUpdateFailed(renderer, index, section, preparationError);
+                        else
+                            applySectionUpdate(renderer, index, section, preparedSection);
+                    }
+                });
+            }
+        });
+    }
 
-                Paint colorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-                colorPaint.setColor(ContextCompat.getColor(getContext(), colorRes));
-                colorPaint.setStrokeWidth(1f);
-                colorPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-                resultCanvas.drawArc(box, startAngle, sweepAngle, true, colorPaint);
+    /**
+     * Handles a section which couldn't be prepared in the background. FILE, URI and STREAM sections
+     * can fail to load for reasons the app can't prevent (a missing file, a revoked Uri), so the failure
+     * is logged and the section drawn as a placeholder. Other sections fail on the UI thread, same as a
+     * synchronous update would.
+     */
+    private void onSectionUpdateFailed(WheelRenderer renderer, int index, WheelSection section, RuntimeException e) {
+        if(renderer != mRenderer)
+            return;
+        if(!WheelRenderer.isSourceSection(section))
+            throw e;
+
+        Log.w(TAG, "Could not load section " + index + ", it's shown as a placeholder. WheelSection data = " + section, e);
+        if(mWheelSections.get(index) == section && renderer.getSections().get(index) != section)
+            applySectionUpdate(renderer, index, section, renderer.prepareSectionPlaceholder(index, section));
+    }
 
-                //Rotate the canvas sweepAngle degrees, around its center.
-                resultCanvas.rotate(sweepAngle, resultCanvas.getWidth()/2, resultCanvas.getHeight()/2);
-                continue;
+    /**
+     * Decodes the FILE, URI and STREAM sections of the wheel just shown, in parallel on the decode threads.
+     * They're shown as placeholders until each one is ready, then drawn over them one by one.
+     * @param memoryMode In the HARDWARE memory mode, the wheel is moved to graphics memory once they're all drawn
+     */
+    private void loadSourceSections(WheelRenderer renderer, MemoryMode memoryMode) {
+        if(!renderer.isPrepared())              //Loaded from the disk cache, it has no such sections
+            return;
+
+        List<WheelSection> sections = renderer.getSections();
+        for(int i = 0; i < sections.size(); i++) {
+            if(WheelRenderer.isSourceSection(sections.get(i))) {
+                mSourceSectionTasks.add(prepareSectionUpdateAsync(renderer, i, sections.get(i), WheelExecutors.getDecodeExecutor(), true));
+                mPendingSourceSections++;
             }
+        }
+        mHardwareUploadPending = (mPendingSourceSections > 0 && memoryMode == MemoryMode.HARDWARE);
+    }
 
-
-            //Grab the bitmap for this section
-            Bitmap sectionBitmap;
-            switch (section.getType()) {
-                case BITMAP:
-                    sectionBitmap = ((WheelBitmapSection)section).getBitmap();
-                    if(sectionBitmap == null)
-                        throw new InvalidWheelSectionDataException("Invalid bitmap. WheelSection data = " + section.toString());
-                    break;
-                case DRAWABLE:
-                    //Try to get bitmap drawable (jpg, png) or xml based drawable (xml, layer-list, etc)
-                    int drawableRes = ((WheelDrawableSection)section).getDrawableRes();
-                    Drawable d = ContextCompat.getDrawable(getContext(), drawableRes);
-                    sectionBitmap = ImageUtil.drawableToBitmap(d);
-
-                    if(sectionBitmap == null) {
-
-                        try {
-                            //Try to get the name
-                            String resourceEntryName = getResources().getResourceEntryName(drawableRes);
-                            throw new InvalidWheelSectionDataException("Problem generating bitmap from drawable. Resource name='" + resourceEntryName + "', Resource ID="+ drawableRes);
-                        } catch (Resources.NotFoundException e) {
-                            throw new InvalidWheelSectionDataException("Problem generating bitmap from drawable. Could not find resource. Resource ID="+ drawableRes);
-                        }
+    /**
+     * Draws a decoded FILE, URI or STREAM section over its placeholder, unless the wheel was generated
+     * again, or the section replaced by {@link #updateSection(int, WheelSection)}, meanwhile.
+     * A section which failed to load keeps its placeholder, see {@link #onSectionUpdateFailed(WheelRenderer, int, WheelSection, RuntimeException)}.
+     * @param error Why the section couldn't be prepared, or null
+     */
+    private void applySourceSection(WheelRenderer renderer, int index, WheelSection section,
+                                    @Nullable WheelRenderer.PreparedSection preparedSection, @Nullable RuntimeException error) {
+        if(renderer != mRenderer)
+            return;
+
+        try {
+            if(error != null)
+                onSectionUpdateFailed(renderer, index, section, error);
+            else if(renderer.getSections().get(index) == section)
+                applySectionUpdate(renderer, index, section, preparedSection);
+        } finally {
+            mPendingSourceSections--;
+            if(mPendingSourceSections == 0) {
+                mSourceSectionTasks.clear();
+                if(mHardwareUploadPending && mWheelBitmap != null) {
+                    Bitmap softwareWheel = mWheelBitmap;
+                    boolean softwareWheelShared = mWheelBitmapShared;
+                    Bitmap hardwareWheel = toHardwareBitmap(softwareWheel, true);        //Released below, once replaced
+                    if(hardwareWheel != softwareWheel) {
+                        mWheelBitmap = hardwareWheel;
+                        mWheelBitmapShared = false;
+                        mWheel.setImageDrawable(new BitmapDrawable(getResources(), hardwareWheel));
+                        releaseBitmap(softwareWheel, softwareWheelShared);
                     }
-                    break;
-                default:
-                    throw new InvalidWheelSectionDataException("Unexpected SectionType error. Please report this error. Section data=" + section.toString());
+                }
+                mHardwareUploadPending = false;
             }
-
-
-            //Get center cropped bitmap
-            Bitmap sectionBitmapCropped = ImageUtil.getCenterCropBitmap(sectionBitmap, drawnMaskRect.width(), drawnMaskRect.height());
-
-
-            //Create a blank temp bitmap to work on
-            Bitmap temp = Bitmap.createBitmap(wheelWidth, wheelHeight, Bitmap.Config.ARGB_8888);
-            Canvas tempCanvas = new Canvas(temp);
-
-
-            //Draw cropped sectionBitmap image onto temp, then draw mask on it
-            tempCanvas.drawBitmap(sectionBitmapCropped, null, drawnMaskRect, null);
-            tempCanvas.drawBitmap(mask, 0, 0, maskPaint);
-
-            //Draw masked image to resultCanvas
-            resultCanvas.drawBitmap(temp, 0, 0, new Paint());
-
-            //Rotate the canvas sweepAngle degrees, around its center.
-            resultCanvas.rotate(sweepAngle, resultCanvas.getWidth()/2, resultCanvas.getHeight()/2);
-
         }
+    }
 
-        //If a wheel separator line color was set
-        if(mWheelSeparatorLineColor != -1) {
-            Paint color = new Paint(Paint.ANTI_ALIAS_FLAG);
-            color.setColor(ContextCompat.getColor(getContext(), mWheelSeparatorLineColor));
-            color.setStyle(Paint.Style.STROKE);
-            color.setStrokeWidth(DimensionUtil.convertDpToPixel(mWheelSeparatorLineThickness));
-
+    /**
+     * Applies new border and separator settings to the wheel being shown, by redrawing it from its
+     * already prepared sections. Nothing is decoded again.
+     */
+    private void updateDecorations() {
+        if(mRenderer == null) {
+            if(mGenerationPending)          //Generated in the background from older settings, start over
+                generateWheelImage();
+            return;
+        }
 
-            int r = Math.min(wheelWidth, wheelHeight)/2;
-            int centerX = wheelWidth/2;
-            int centerY = wheelHeight/2;
+        if(!mRenderer.isPrepared() || (mWheelBitmap != null && !mWheelBitmap.isMutable())) {
+            generateWheelImage();
+            return;
+        }
 
-            for(int i = 0; i < mWheelSections.size() ; i++) {
+        mRenderer.setDecorations(mWheelBorderLineColor, mWheelBorderLineThickness, mWheelSeparatorLineColor, mWheelSeparatorLineThickness);
+        if(mWheelBitmap != null)
+            mRenderer.redraw(getEditableWheelBitmap());
+        mWheel.invalidate();
+    }
 
+    /**
+     * Shows a placeholder wheel, then prepares the real one on a worker thread and swaps it in
+     * on the UI thread, unless the generation gets cancelled in between.
+     */
+    private void generateWheelImageAsync(final WheelRenderer renderer, final GenerationMetrics metrics) {
+        final int generationId = mGenerationId;
+        final RenderMode renderMode = mRenderMode;
+        final MemoryMode memoryMode = mMemoryMode;
+        final boolean diskCacheEnabled = mDiskCacheEnabled;
+
+        WheelRenderer placeholderRenderer = createRenderer();
+        placeholderRenderer.preparePlaceholder();
+        mRenderer = null;
+        setWheelDrawable(new LiveWheelDrawable(placeholderRenderer), placeholderRenderer.getWidth());
+        mGenerationPending = true;
+
+        mGenerationTask = WheelExecutors.getGenerationExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Drawable wheelDrawable = createWheelDrawable(renderer, renderMode, memoryMode, diskCacheEnabled, true, metrics);
+                    if(wheelDrawable == null)          //Cancelled
+                        return;
+
+                    WheelExecutors.getMainHandler().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if(generationId != mGenerationId)
+                                return;
+
+                            mGenerationTask = null;
+                            mGenerationPending = false;
+                            showWheel(renderer, wheelDrawable);
+                            loadSourceSections(renderer, memoryMode);
+                            dispatchGenerationMetrics(metrics);
+                        }
+                    });
+                } catch (final RuntimeException e) {
+
+                    //Rethrow on the UI thread, same as a synchronous generation would
+                    WheelExecutors.getMainHandler().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if(generationId == mGenerationId) {
+                                releaseWheelBitmap();
+                                throw e;
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
 
-                double t =  Math.toRadians(angleOffset) + (2 * Math.PI * i / mWheelSections.size());
-                int x = (int) Math.round(centerX + r * Math.cos(t));
-                int y = (int) Math.round(centerY + r * Math.sin(t));
+    /**
+     * @return A WheelRenderer holding a snapshot of the current settings
+     */
+    private WheelRenderer createRenderer() {
+        WheelRenderer renderer = new WheelRenderer(getContext(), mWheelSections, wheelWidth, wheelHeight,
+                mWheelBorderLineColor, mWheelBorderLineThickness, mWheelSeparatorLineColor, mWheelSeparatorLineThickness,
+                mLabelTextColor, mLabelTextSize);
+        if(mMemoryMode == MemoryMode.RGB_565)
+            renderer.setOpaqueBackground(mWheelBackgroundColor != -1 ? ContextCompat.getColor(getContext(), mWheelBackgroundColor) : Color.WHITE);
+        return renderer;
+    }
 
-                resultCanvas.drawLine(centerX, centerY, x, y, color);
+    /**
+     * Prepares a WheelRenderer and returns the Drawable to set on the wheel's ImageView:
+     * the wheel drawn into a bitmap (or loaded from the disk cache), or drawn live from the renderer.
+     * @param parallel true to decode sections in parallel, see {@link WheelRenderer#prepare(boolean)}. Only off the UI thread.
+     * @param metrics Where to record the generation's timings and the wheel's size in memory, or null
+     * @return The wheel's Drawable, or null if the preparation was cancelled
+     */
+    private Drawable createWheelDrawable(WheelRenderer renderer, RenderMode renderMode, MemoryMode memoryMode,
+                                         boolean diskCacheEnabled, boolean parallel, @Nullable GenerationMetrics metrics) {
+        long start = System.nanoTime();
+
+        String diskCacheKey = null;
+        if(diskCacheEnabled && renderMode == RenderMode.BITMAP) {
+            diskCacheKey = renderer.getDiskCacheKey();
+
+            Bitmap cachedWheel = (diskCacheKey != null ? WheelDiskCache.get(getContext(), diskCacheKey) : null);
+            if(cachedWheel != null) {
+                if(memoryMode == MemoryMode.HARDWARE)
+                    cachedWheel = toHardwareBitmap(cachedWheel, false);
+                if(metrics != null) {
+                    metrics.setDiskCacheHit(true);
+                    metrics.wheelByteCount = WheelBitmapPool.getByteCount(cachedWheel);
+                    metrics.totalNanos = System.nanoTime() - start;
+                }
+                return new BitmapDrawable(getResources(), cachedWheel);
+            }
+        }
 
+        if(!renderer.prepare(parallel))
+            return null;
+
+        Drawable wheelDrawable;
+        if(renderMode == RenderMode.LIVE)
+            wheelDrawable = new LiveWheelDrawable(renderer);
+        else {
+            Bitmap wheel = renderer.drawToBitmap();
+            if(diskCacheKey != null) {
+                WheelDiskCache.putAsync(getContext().getApplicationContext(), diskCacheKey, wheel);
+                renderer.setDiskCacheBitmap(wheel);
             }
+            if(memoryMode == MemoryMode.HARDWARE && !hasSourceSections(renderer))     //Otherwise moved once they're loaded
+                wheel = toHardwareBitmap(wheel, renderer.isSharedWithDiskCache(wheel));
+            if(metrics != null)
+                metrics.wheelByteCount = WheelBitmapPool.getByteCount(wheel);
+            wheelDrawable = new BitmapDrawable(getResources(), wheel);
         }
 
+        if(metrics != null)
+            metrics.totalNanos = System.nanoTime() - start;
+        return wheelDrawable;
+    }
 
-        //If a wheelBorder line color was set
-        if(mWheelBorderLineColor != -1) {
-            Paint color = new Paint(Paint.ANTI_ALIAS_FLAG);
-            color.setColor(ContextCompat.getColor(getContext(), mWheelBorderLineColor));
-            color.setStyle(Paint.Style.STROKE);
-            color.setStrokeWidth(DimensionUtil.convertDpToPixel(mWheelBorderLineThickness));
+    /**
+     * Moves a finished wheel to graphics memory, on API 26+. The software bitmap is given back to the
+     * {@link WheelBitmapPool}, unless it was handed to the disk cache.
+     * @return The HARDWARE bitmap, or the same bitmap if it couldn't be moved
+     */
+    private static Bitmap toHardwareBitmap(Bitmap wheel, boolean sharedWithDiskCache) {
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.O)
+            return wheel;
+
+        Bitmap hardwareWheel = wheel.copy(Bitmap.Config.HARDWARE, false);
+        if(hardwareWheel == null)
+            return wheel;
+        if(!sharedWithDiskCache)
+            WheelBitmapPool.release(wheel);
+        return hardwareWheel;
+    }
 
-            resultCanvas.drawCircle(wheelWidth/2, wheelHeight/2, (Math.min(wheelWidth, wheelHeight)-mWheelBorderLineThickness)/2, color);
+    private static boolean hasSourceSections(WheelRenderer renderer) {
+        for(WheelSection section : renderer.getSections()) {
+            if(WheelRenderer.isSourceSection(section))
+                return true;
         }
+        return false;
+    }
 
+    private void dispatchGenerationMetrics(@Nullable GenerationMetrics metrics) {
+        if(metrics != null && mMetricsListener != null)
+            mMetricsListener.onGenerationMetrics(metrics);
+    }
 
+    /**
+     * @return The display's refresh rate, used to tell late frames apart in {@link SpinMetrics}
+     */
+    private float getDisplayRefreshRate() {
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        return (windowManager != null ? windowManager.getDefaultDisplay().getRefreshRate() : 60);
+    }
 
-        mWheel.setImageBitmap(result);
+    /**
+     * Cancels the wheel generation, and the section updates, running in the background, if any.
+     * Results of older generations are discarded once they reach the UI thread.
+     */
+    private void cancelWheelGeneration() {
+        mGenerationId++;
+        if(mGenerationTask != null) {
+            mGenerationTask.cancel(true);
+            mGenerationTask = null;
+        }
+
+        for(Future<?> task : mSourceSectionTasks)
+            task.cancel(true);
+        mSourceSectionTasks.clear();
+        for(Future<?> task : mSectionUpdateTasks)
+            task.cancel(true);
+        mSectionUpdateTasks.clear();
+        mPendingSourceSections = 0;
+        mHardwareUploadPending = false;
     }
 
 
     private void doFlingWheel(float velocity) {
 
         //Stop previous fling
-        removeCallbacks(flingRunnable);
+        spinCallback.cancel();
 
         //Notify fling
         if(mListener != null)
@@ -502,154 +1076,179 @@ public class PrizeWheelView extends RelativeLayout {
 
         //Launch new fling
         allowRotating = true;
-        flingRunnable = new FlingRunnable( velocity / initialFlingDampening );
-        post(flingRunnable);
+        long startTimeNanos = System.nanoTime();
+        motion.startFling(velocity / initialFlingDampening, flingVelocityDampening, startTimeNanos);
+        spinCallback.start(startTimeNanos, -1, 0);
     }
 
 
 
 
 
+    /**
+     * Rotates the wheel while it's dragged, and flings it when released fast enough.
+     * Every touch sample is tracked, including the ones batched into a single move event, but the wheel
+     * is rotated once per event. The fling velocity is the touch's angular velocity, tracked by the
+     * {@link WheelMotion}, so flings have the same strength in every quadrant and no objects
+     * are allocated while handling touches.
+     */
     private class WheelTouchListener implements View.OnTouchListener {
 
-        private double startAngle;
+        private final int minimumFlingVelocity;
+        private final int maximumFlingVelocity;
+
+        WheelTouchListener(ViewConfiguration viewConfiguration) {
+            minimumFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+            maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        }
 
         @Override
         public boolean onTouch(View v, MotionEvent event) {
 
-            switch (event.getAction()) {
+            switch (event.getActionMasked()) {
 
                 case MotionEvent.ACTION_DOWN:
-                    resetQuadrants();
-                    startAngle = getAngle(event.getX(), event.getY());
+                    motion.startDrag(wheelWidth, wheelHeight);
+                    trackSamples(event);
                     allowRotating = false;
                     break;
 
                 case MotionEvent.ACTION_MOVE:
-                    double currentAngle = getAngle(event.getX(), event.getY());
-                    rotateWheel((float) (startAngle - currentAngle));
-                    startAngle = currentAngle;
+                    trackSamples(event);
+                    if(motion.applyDrag())
+                        applyRotation();
                     break;
 
                 case MotionEvent.ACTION_UP:
+                    trackSamples(event);
+                    if(motion.applyDrag())
+                        applyRotation();
                     allowRotating = true;
-                    break;
-            }
-
-            // set the touched quadrant to true
-            quadrantTouched[getQuadrant(event.getX() - (wheelWidth / 2), wheelHeight - event.getY() - (wheelHeight / 2))] = true;
+                    onRelease(event);
+                    motion.endDrag();
+                    return true;
 
-            //Notify gesture detector
-            gestureDetector.onTouchEvent(event);
+                case MotionEvent.ACTION_CANCEL:
+                    allowRotating = true;
+                    motion.endDrag();
+                    return true;
+            }
 
             return true;
         }
 
         /**
-         * @return The angle of the unit circle with the image view's center
+         * Adds the samples batched into an event, and its own, to the drag being tracked
          */
-        private double getAngle(double xTouch, double yTouch) {
-            double x = xTouch - (wheelWidth / 2d);
-            double y = wheelHeight - yTouch - (wheelHeight / 2d);
-
-            return (Math.atan2(y,x) * 180) / Math.PI;
+        private void trackSamples(MotionEvent event) {
+            for(int i = 0; i < event.getHistorySize(); i++)
+                motion.addDragSample(event.getHistoricalEventTime(i), event.getHistoricalX(i), event.getHistoricalY(i));
+            motion.addDragSample(event.getEventTime(), event.getX(), event.getY());
         }
 
-    }
-    private class WheelGestureListener implements GestureDetector.OnGestureListener {
-
+        /**
+         * Flings the wheel if it was released fast enough, same as GestureDetector would.
+         * The fling velocity is the speed of the touch along the circle it was rotating on, in pixels per second.
+         */
+        private void onRelease(MotionEvent event) {
+            double velocity = motion.getReleaseVelocity(event.getX(), event.getY());
 
+            if(Math.abs(velocity) <= minimumFlingVelocity)
+                return;
+            velocity = Math.max(-maximumFlingVelocity, Math.min(maximumFlingVelocity, velocity));
 
-        @Override
-        public boolean onDown(MotionEvent e) {
-            return false;
+            //Counter-clockwise touches rotate the wheel by negative degrees
+            doFlingWheel((float) -velocity);
         }
 
-        @Override
-        public void onShowPress(MotionEvent e) {
+    }
 
-        }
 
-        @Override
-        public boolean onSingleTapUp(MotionEvent e) {
-            return false;
-        }
+    /**
+     * A {@link Choreographer.FrameCallback} for animating the wheel's spins (flings and targeted spins).
+     * Runs once per display frame and has the {@link WheelMotion} rotate the wheel to where its spin
+     * should be at that frame's time, so the spin is the same at any refresh rate.
+     */
+    private class SpinFrameCallback implements Choreographer.FrameCallback {
 
-        @Override
-        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-            return false;
+        private int targetSectionIndex;
+        private double targetAngle;
+        private boolean running;
+        private final SpinMetrics metrics = new SpinMetrics();
+
+        /**
+         * Plays the spin just started on the {@link WheelMotion}
+         * @param startTimeNanos When the spin was started, see {@link System#nanoTime()}
+         * @param targetSectionIndex The section the spin was computed to land on, or -1 to read it from the wheel once settled
+         * @param targetAngle The angle the spin was computed to land on, ignored if targetSectionIndex is -1
+         */
+        void start(long startTimeNanos, int targetSectionIndex, double targetAngle) {
+            cancel();
+            this.targetSectionIndex = targetSectionIndex;
+            this.targetAngle = targetAngle;
+            if(mMetricsListener != null)
+                metrics.start(startTimeNanos, getDisplayRefreshRate());
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
         }
 
-        @Override
-        public void onLongPress(MotionEvent e) {
+        /**
+         * Drops the spin without notifying anyone, to replace it with a new one
+         */
+        void cancel() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
 
+        /**
+         * Ends the spin where the wheel is, notifying the listeners it was stopped, if it's still running
+         */
+        void stop() {
+            cancel();
+            if(running)
+                onStopped();
         }
 
-        @Override
-        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-
-            // get the quadrant of the start and the end of the fling
-            int q1 = getQuadrant(e1.getX() - (wheelWidth / 2), wheelHeight - e1.getY() - (wheelHeight / 2));
-            int q2 = getQuadrant(e2.getX() - (wheelWidth / 2), wheelHeight - e2.getY() - (wheelHeight / 2));
-
-            // the inversed rotations
-            if ((q1 == 2 && q2 == 2 && Math.abs(velocityX) < Math.abs(velocityY))
-                    || (q1 == 3 && q2 == 3)
-                    || (q1 == 1 && q2 == 3)
-                    || (q1 == 4 && q2 == 4 && Math.abs(velocityX) > Math.abs(velocityY))
-                    || ((q1 == 2 && q2 == 3) || (q1 == 3 && q2 == 2))
-                    || ((q1 == 3 && q2 == 4) || (q1 == 4 && q2 == 3))
-                    || (q1 == 2 && q2 == 4 && quadrantTouched[3])
-                    || (q1 == 4 && q2 == 2 && quadrantTouched[3])) {
-
-                doFlingWheel((-1 * (velocityX + velocityY)));
-                //post(new FlingRunnable( (-1 * (velocityX + velocityY)) / initialFlingDampening ));
-                //if(mListener != null)
-                    //mListener.onWheelFlung();
-            } else {
-                // the normal rotation
-                doFlingWheel((velocityX + velocityY));
-
-                //post(new FlingRunnable( (velocityX + velocityY) / initialFlingDampening ));
-                //if(mListener != null)
-                    //mListener.onWheelFlung();
+        private void onStopped() {
+            running = false;
+            if(mListener != null) {
+                mListener.onWheelStopped();
             }
-
-            return true;
+            dispatchSpinMetrics(true);
         }
 
+        @Override
+        public void doFrame(long frameTimeNanos) {
 
-    }
+            if(!allowRotating) {        //Spin has been stopped, so stop now.
+                onStopped();
+                return;
+            }
 
+            if(mMetricsListener != null)
+                metrics.onFrame(frameTimeNanos);
 
-    /**
-     * A {@link Runnable} for animating the the dialer's fling.
-     */
-    private class FlingRunnable implements Runnable {
+            boolean spinning = motion.stepSpin(frameTimeNanos);
+            applyRotation();
 
-        private float velocity;
+            if (spinning) {
+                Choreographer.getInstance().postFrameCallback(this);
+                return;
+            }
 
-        public FlingRunnable(float velocity) {
-            this.velocity = velocity;
+            running = false;
+            if(mListener != null) {
+                if(targetSectionIndex == -1)
+                    mListener.onWheelSettled(getCurrentSelectedSectionIndex(), getCurrentRotation());
+                else
+                    mListener.onWheelSettled(targetSectionIndex, targetAngle);
+            }
+            dispatchSpinMetrics(false);
         }
 
-        @Override
-        public void run() {
-
-            if(!allowRotating) {        //Fling has been stopped, so stop now.
-                if(mListener != null) {
-                    mListener.onWheelStopped();
-                }
-            } else if (Math.abs(velocity) > 5) {
-                rotateWheel(velocity / 75);
-                velocity /= flingVelocityDampening;
-
-                // post this instance again
-                post(this);
-            } else {
-                if(mListener != null) {
-                    mListener.onWheelSettled(getCurrentSelectedSectionIndex(), getCurrentRotation());
-                }
+        private void dispatchSpinMetrics(boolean stopped) {
+            if(mMetricsListener != null) {
+                metrics.finish(stopped);
+                mMetricsListener.onSpinMetrics(metrics);
             }
         }
     }
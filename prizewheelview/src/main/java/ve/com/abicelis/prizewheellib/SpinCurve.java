@@ -0,0 +1,22 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * A precomputed rotation of the wheel over time, played back frame by frame by {@link PrizeWheelView}.
+ */
+interface SpinCurve {
+
+    /**
+     * @return How long the spin lasts, in nanoseconds
+     */
+    long getDurationNanos();
+
+    /**
+     * @return The degrees the wheel rotates during the whole spin
+     */
+    double getTotalAngle();
+
+    /**
+     * @return The degrees the wheel has rotated after a given time since the spin started
+     */
+    double getAngleAt(long elapsedNanos);
+}
@@ -0,0 +1,115 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Frame timings of one spin of the wheel, reported to a {@link WheelMetricsListener}.
+ * Collected on every frame without allocating: a single instance is reused for every spin.
+ */
+public class SpinMetrics {
+
+    private static final double LATE_FRAME_THRESHOLD = 1.5;      //Frames taking this many frame intervals or more are late
+
+    private long expectedFrameIntervalNanos = 1000000000L / 60;
+    private long startTimeNanos;
+    private long lastFrameTimeNanos;
+    private int framesRendered;
+    private int lateFrames;
+    private int droppedFrames;
+    private long maxFrameIntervalNanos;
+    private long durationNanos;
+    private boolean stopped;
+
+
+    void start(long startTimeNanos, float refreshRate) {
+        this.expectedFrameIntervalNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60));
+        this.startTimeNanos = startTimeNanos;
+        lastFrameTimeNanos = startTimeNanos;
+        framesRendered = 0;
+        lateFrames = 0;
+        droppedFrames = 0;
+        maxFrameIntervalNanos = 0;
+        durationNanos = 0;
+        stopped = false;
+    }
+
+    void onFrame(long frameTimeNanos) {
+        long interval = frameTimeNanos - lastFrameTimeNanos;
+        if(framesRendered > 0) {            //The first frame's interval is the spin's start latency, not a frame
+            if(interval > maxFrameIntervalNanos)
+                maxFrameIntervalNanos = interval;
+            if(interval >= expectedFrameIntervalNanos * LATE_FRAME_THRESHOLD) {
+                lateFrames++;
+                droppedFrames += Math.round((double) interval / expectedFrameIntervalNanos) - 1;
+            }
+        }
+
+        framesRendered++;
+        lastFrameTimeNanos = frameTimeNanos;
+        durationNanos = frameTimeNanos - startTimeNanos;
+    }
+
+    void finish(boolean stopped) {
+        this.stopped = stopped;
+    }
+
+
+    /**
+     * @return The amount of frames the spin was drawn on
+     */
+    public int getFramesRendered() {
+        return framesRendered;
+    }
+
+    /**
+     * @return The amount of frames which took 1.5 display frame intervals or more
+     */
+    public int getLateFrames() {
+        return lateFrames;
+    }
+
+    /**
+     * @return The amount of display frames skipped by late frames
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * @return The longest time between two frames of the spin, in nanoseconds
+     */
+    public long getMaxFrameIntervalNanos() {
+        return maxFrameIntervalNanos;
+    }
+
+    /**
+     * @return The display's frame interval during the spin, in nanoseconds
+     */
+    public long getExpectedFrameIntervalNanos() {
+        return expectedFrameIntervalNanos;
+    }
+
+    /**
+     * @return How long the spin lasted, from its start until its last frame, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return true if the spin was stopped (by a touch, or by {@link PrizeWheelView#stopWheel()}) before settling
+     */
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+
+    @Override
+    public String toString() {
+        return
+                "FramesRendered= " +            framesRendered +
+                ", LateFrames= " +              lateFrames +
+                ", DroppedFrames= " +           droppedFrames +
+                ", MaxFrameIntervalNanos= " +   maxFrameIntervalNanos +
+                ", DurationNanos= " +           durationNanos +
+                ", Stopped= " +                 stopped;
+    }
+}
@@ -0,0 +1,56 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * A spin which rotates the wheel an exact amount of degrees in an exact amount of time,
+ * decelerating smoothly until it stops (cubic ease out).
+ * Used to land the wheel on a section chosen beforehand.
+ */
+class TargetedSpinCurve implements SpinCurve {
+
+    private double totalAngle;
+    private long durationNanos;
+
+
+    TargetedSpinCurve() {
+    }
+
+    /**
+     * @param totalAngle The degrees to rotate the wheel. Its sign is the direction of the rotation
+     * @param durationNanos How long the spin lasts, in nanoseconds
+     */
+    TargetedSpinCurve(double totalAngle, long durationNanos) {
+        set(totalAngle, durationNanos);
+    }
+
+    /**
+     * Recomputes the curve for a new spin, so a single instance can be reused for every spin of a wheel
+     * @param totalAngle The degrees to rotate the wheel. Its sign is the direction of the rotation
+     * @param durationNanos How long the spin lasts, in nanoseconds
+     */
+    void set(double totalAngle, long durationNanos) {
+        this.totalAngle = totalAngle;
+        this.durationNanos = Math.max(durationNanos, 0);
+    }
+
+
+    @Override
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public double getTotalAngle() {
+        return totalAngle;
+    }
+
+    @Override
+    public double getAngleAt(long elapsedNanos) {
+        if(elapsedNanos >= durationNanos)
+            return totalAngle;
+        if(elapsedNanos <= 0)
+            return 0;
+
+        double remaining = 1 - (double) elapsedNanos / durationNanos;
+        return totalAngle * (1 - remaining * remaining * remaining);
+    }
+}
@@ -0,0 +1,167 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.graphics.Bitmap;
+import android.support.annotation.DrawableRes;
+import android.util.LruCache;
+
+/**
+ * A memory bounded LRU cache of section images (drawables, image files and Uris), already decoded
+ * and center cropped to the size of a wheel's section, shared by every {@link PrizeWheelView}.
+ * Regenerating a wheel, or showing several wheels with the same drawables, reuses these
+ * bitmaps instead of decoding the drawables again.
+ * Safe to use from several threads. Cached bitmaps are shared, so they must never be modified or recycled.
+ */
+public class WheelBitmapCache {
+
+    private static final int DECODE_LOCK_COUNT = 16;           //Power of two
+
+    private static LruCache<String, Bitmap> sCache = createCache(getDefaultMaxSize());
+    private static final Object[] sDecodeLocks = createDecodeLocks();
+
+
+    /**
+     * @return The cached bitmap of a drawable resource cropped to a given size, or null on a miss
+     */
+    static Bitmap getDrawableBitmap(@DrawableRes int drawableRes, int width, int height) {
+        return getCache().get(getDrawableKey(drawableRes, width, height));
+    }
+
+    /**
+     * Caches the bitmap of a drawable resource, cropped to a given size
+     */
+    static void putDrawableBitmap(@DrawableRes int drawableRes, int width, int height, Bitmap bitmap) {
+        getCache().put(getDrawableKey(drawableRes, width, height), bitmap);
+    }
+
+    /**
+     * @return The cached bitmap of an image file or Uri cropped to a given size, or null on a miss
+     * @param source A key identifying the image, see {@link #getFileSource(String, long, long)} and {@link #getUriSource(String)}
+     */
+    static Bitmap getSourceBitmap(String source, int width, int height) {
+        return getCache().get(getSourceKey(source, width, height));
+    }
+
+    /**
+     * Caches the bitmap of an image file or Uri, cropped to a given size
+     */
+    static void putSourceBitmap(String source, int width, int height, Bitmap bitmap) {
+        getCache().put(getSourceKey(source, width, height), bitmap);
+    }
+
+    /**
+     * @return The source key of an image file. A file replaced by another one gets a different key
+     */
+    static String getFileSource(String path, long lastModified, long length) {
+        return "file:" + path + ":" + lastModified + ":" + length;
+    }
+
+    /**
+     * @return The source key of an image Uri
+     */
+    static String getUriSource(String uri) {
+        return "uri:" + uri;
+    }
+
+    /**
+     * @return A lock to hold while looking up, decoding and caching the bitmap of a drawable resource
+     * cropped to a given size, so wheels generated at the same time on different threads decode it only once
+     */
+    static Object getDrawableLock(@DrawableRes int drawableRes, int width, int height) {
+        int hash = 31 * (31 * drawableRes + width) + height;
+        return getLock(hash);
+    }
+
+    /**
+     * @return A lock to hold while looking up, decoding and caching the bitmap of an image file or Uri, same as
+     * {@link #getDrawableLock(int, int, int)}
+     */
+    static Object getSourceLock(String source, int width, int height) {
+        int hash = 31 * (31 * source.hashCode() + width) + height;
+        return getLock(hash);
+    }
+
+
+    /**
+     * @return The amount of times a section image was found in the cache
+     */
+    public static int getHitCount() {
+        return getCache().hitCount();
+    }
+
+    /**
+     * @return The amount of times a section image was not found in the cache, and had to be decoded
+     */
+    public static int getMissCount() {
+        return getCache().missCount();
+    }
+
+    /**
+     * @return The size of the cached bitmaps, in bytes
+     */
+    public static int getSize() {
+        return getCache().size();
+    }
+
+    /**
+     * @return The maximum size of the cached bitmaps, in bytes
+     */
+    public static int getMaxSize() {
+        return getCache().maxSize();
+    }
+
+    /**
+     * Set the maximum size of the cached bitmaps, in bytes. The cache is cleared.
+     * DEFAULT: 1/8 of the memory available to the app
+     */
+    public static synchronized void setMaxSize(int maxSizeBytes) {
+        if(maxSizeBytes > 0) {
+            sCache.evictAll();
+            sCache = createCache(maxSizeBytes);
+        }
+    }
+
+    /**
+     * Removes every bitmap from the cache. Call it when the app is low on memory, for example.
+     */
+    public static void clear() {
+        getCache().evictAll();
+    }
+
+
+
+    private static synchronized LruCache<String, Bitmap> getCache() {
+        return sCache;
+    }
+
+    private static Object getLock(int hash) {
+        return sDecodeLocks[(hash ^ (hash >>> 16)) & (DECODE_LOCK_COUNT - 1)];
+    }
+
+    private static String getSourceKey(String source, int width, int height) {
+        return source + ":" + width + "x" + height;
+    }
+
+    private static String getDrawableKey(@DrawableRes int drawableRes, int width, int height) {
+        return "drawable:" + drawableRes + ":" + width + "x" + height;
+    }
+
+    private static int getDefaultMaxSize() {
+        return (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+    }
+
+    private static Object[] createDecodeLocks() {
+        Object[] locks = new Object[DECODE_LOCK_COUNT];
+        for(int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+        return locks;
+    }
+
+    private static LruCache<String, Bitmap> createCache(int maxSizeBytes) {
+        return new LruCache<String, Bitmap>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+}
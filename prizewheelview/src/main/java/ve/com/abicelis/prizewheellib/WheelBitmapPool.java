@@ -0,0 +1,189 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * A memory bounded pool of mutable bitmaps no longer in use, shared by every {@link PrizeWheelView}.
+ * Wheel bitmaps and temporary decoding bitmaps are taken from it and given back to it, instead of
+ * being allocated and dropped for the GC, so regenerating wheels over and over keeps memory flat.
+ * Bitmaps are matched by size and config. On API 19+ a larger pooled bitmap is reconfigured to fit.
+ * Safe to use from several threads.
+ */
+public class WheelBitmapPool {
+
+    private static final LinkedList<Bitmap> sBitmaps = new LinkedList<>();        //Most recently released first
+    private static long sSize;
+    private static long sMaxSize = Runtime.getRuntime().maxMemory() / 16;
+    private static int sHitCount;
+    private static int sMissCount;
+
+
+    /**
+     * @return A mutable, transparent bitmap of the given size and config, from the pool or newly created
+     */
+    static Bitmap acquire(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = getReusable(width, height, config);
+        if(bitmap == null)
+            return Bitmap.createBitmap(width, height, config);
+
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * @return A pooled bitmap large enough to hold the given size and config, already of that size and config
+     * if possible, or null if there isn't one. Its pixels are not cleared. Meant for {@link android.graphics.BitmapFactory.Options#inBitmap}.
+     */
+    static synchronized Bitmap getReusable(int width, int height, Bitmap.Config config) {
+        if(width <= 0 || height <= 0)
+            return null;
+
+        Bitmap bitmap = remove(width, height, config);
+        if(bitmap == null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            bitmap = removeReconfigurable(width, height, config);
+            if(bitmap != null)
+                bitmap.reconfigure(width, height, config);
+        }
+
+        if(bitmap != null)
+            sHitCount++;
+        else
+            sMissCount++;
+        return bitmap;
+    }
+
+    /**
+     * Gives a bitmap back to the pool, which then owns it.
+     * NOTE: The bitmap must not be used, drawn or shown anywhere afterwards.
+     * Immutable or recycled bitmaps are ignored.
+     */
+    static synchronized void release(Bitmap bitmap) {
+        if(bitmap == null || bitmap.isRecycled() || !bitmap.isMutable())
+            return;
+
+        long byteCount = getByteCount(bitmap);
+        if(byteCount > sMaxSize) {
+            bitmap.recycle();
+            return;
+        }
+
+        sBitmaps.addFirst(bitmap);
+        sSize += byteCount;
+        trimToSize(sMaxSize);
+    }
+
+
+    /**
+     * @return The amount of times a bitmap was taken from the pool
+     */
+    public static synchronized int getHitCount() {
+        return sHitCount;
+    }
+
+    /**
+     * @return The amount of times no pooled bitmap fit, and a new one had to be created
+     */
+    public static synchronized int getMissCount() {
+        return sMissCount;
+    }
+
+    /**
+     * @return The size of the pooled bitmaps, in bytes
+     */
+    public static synchronized long getSize() {
+        return sSize;
+    }
+
+    /**
+     * @return The maximum size of the pooled bitmaps, in bytes
+     */
+    public static synchronized long getMaxSize() {
+        return sMaxSize;
+    }
+
+    /**
+     * Set the maximum size of the pooled bitmaps, in bytes. The least recently pooled bitmaps are dropped to fit.
+     * DEFAULT: 1/16 of the memory available to the app
+     */
+    public static synchronized void setMaxSize(long maxSizeBytes) {
+        if(maxSizeBytes >= 0) {
+            sMaxSize = maxSizeBytes;
+            trimToSize(maxSizeBytes);
+        }
+    }
+
+    /**
+     * Drops every pooled bitmap. Call it when the app is low on memory, for example.
+     */
+    public static synchronized void clear() {
+        trimToSize(0);
+    }
+
+
+
+    private static Bitmap remove(int width, int height, Bitmap.Config config) {
+        Iterator<Bitmap> iterator = sBitmaps.iterator();
+        while (iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if(bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                iterator.remove();
+                sSize -= getByteCount(bitmap);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The smallest pooled bitmap whose allocation fits the given size and config, removed from the pool
+     */
+    private static Bitmap removeReconfigurable(int width, int height, Bitmap.Config config) {
+        long requiredBytes = (long) width * height * getBytesPerPixel(config);
+        Bitmap best = null;
+        for(Bitmap bitmap : sBitmaps) {
+            long byteCount = getByteCount(bitmap);
+            if(byteCount >= requiredBytes && (best == null || byteCount < getByteCount(best)))
+                best = bitmap;
+        }
+
+        if(best != null) {
+            sBitmaps.remove(best);
+            sSize -= getByteCount(best);
+        }
+        return best;
+    }
+
+    private static void trimToSize(long maxSize) {
+        while (sSize > maxSize && !sBitmaps.isEmpty()) {
+            Bitmap bitmap = sBitmaps.removeLast();
+            sSize -= getByteCount(bitmap);
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * @return The memory used by a bitmap, in bytes
+     */
+    static long getByteCount(Bitmap bitmap) {
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+            return bitmap.getAllocationByteCount();
+        return bitmap.getByteCount();
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A disk cache of generated wheel bitmaps, stored as raw ARGB_8888 pixels in the app's cache dir.
+ * Loading a cached wheel is a single memory mapped copy, no decoding or drawing is needed.
+ * Used by {@link PrizeWheelView} when {@link PrizeWheelView#setDiskCacheEnabled(boolean)} is set.
+ */
+public class WheelDiskCache {
+
+    private static final String TAG = WheelDiskCache.class.getSimpleName();
+    private static final String CACHE_DIR = "prizewheelview";
+    private static final String FILE_EXTENSION = ".argb";
+    private static final int HEADER_SIZE = 8;          //width and height, as ints
+
+
+    /**
+     * @return The wheel bitmap cached under the given key, or null if there isn't one
+     */
+    static Bitmap get(Context context, String key) {
+        File file = getFile(context, key);
+        if(!file.exists())
+            return null;
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            //Only a file that isn't a wheel is deleted, failing to read a good one (e.g. when interrupted) keeps it
+            if(channel.size() < HEADER_SIZE) {
+                file.delete();
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if(width <= 0 || height <= 0 || channel.size() != HEADER_SIZE + (long) width * height * 4) {
+                file.delete();
+                return null;
+            }
+
+            Bitmap bitmap = WheelBitmapPool.acquire(width, height, Bitmap.Config.ARGB_8888);
+            bitmap.copyPixelsFromBuffer(buffer);
+            file.setLastModified(System.currentTimeMillis());     //Keep recently used wheels around
+            return bitmap;
+        } catch (ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();          //The generation was cancelled, let it see so
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not read cached wheel " + file.getName(), e);
+            return null;
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Writes a wheel bitmap to the cache on a background thread.
+     * NOTE: The bitmap must not be modified or recycled afterwards.
+     */
+    static void putAsync(final Context context, final String key, final Bitmap bitmap) {
+        WheelExecutors.getGenerationExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                put(context, key, bitmap);
+            }
+        });
+    }
+
+    /**
+     * Deletes every cached wheel
+     */
+    public static void clear(Context context) {
+        File[] files = getDir(context).listFiles();
+        if(files != null) {
+            for(File file : files)
+                file.delete();
+        }
+    }
+
+
+
+    private static void put(Context context, String key, Bitmap bitmap) {
+        if(bitmap.isRecycled() || bitmap.getConfig() != Bitmap.Config.ARGB_8888)
+            return;
+
+        File dir = getDir(context);
+        if(!dir.exists() && !dir.mkdirs())
+            return;
+
+        //Write to a temp file, then rename it, so a half written wheel is never read
+        File file = getFile(context, key);
+        File tempFile = new File(dir, key + ".tmp");
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(tempFile, "rw");
+            long size = HEADER_SIZE + (long) bitmap.getWidth() * bitmap.getHeight() * 4;
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(bitmap.getWidth());
+            buffer.putInt(bitmap.getHeight());
+            bitmap.copyPixelsToBuffer(buffer);
+            buffer.force();
+            closeQuietly(raf);
+            raf = null;
+
+            if(!tempFile.renameTo(file))
+                tempFile.delete();
+            trim(dir);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not cache wheel " + file.getName(), e);
+            tempFile.delete();
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    /**
+     * Deletes the least recently used wheels, keeping at most {@link Constants#DISK_CACHE_MAX_WHEELS}
+     */
+    private static void trim(File dir) {
+        File[] files = dir.listFiles();
+        if(files == null || files.length <= Constants.DISK_CACHE_MAX_WHEELS)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                long m1 = f1.lastModified(), m2 = f2.lastModified();
+                return m1 < m2 ? 1 : (m1 == m2 ? 0 : -1);           //Newest first
+            }
+        });
+        for(int i = Constants.DISK_CACHE_MAX_WHEELS; i < files.length; i++)
+            files[i].delete();
+    }
+
+    private static File getDir(Context context) {
+        return new File(context.getCacheDir(), CACHE_DIR);
+    }
+
+    private static File getFile(Context context, String key) {
+        return new File(getDir(context), key + FILE_EXTENSION);
+    }
+
+    private static void closeQuietly(RandomAccessFile raf) {
+        if(raf != null) {
+            try {
+                raf.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
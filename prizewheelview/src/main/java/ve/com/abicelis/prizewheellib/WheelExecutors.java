@@ -0,0 +1,80 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker threads shared by every {@link PrizeWheelView} instance.
+ */
+class WheelExecutors {
+
+    private static final int MAXIMUM_DECODE_THREADS = 4;
+
+    private static ExecutorService sGenerationExecutor;
+    private static ExecutorService sDecodeExecutor;
+    private static Handler sMainHandler;
+
+    /**
+     * @return A single background thread on which wheel images are generated
+     */
+    static synchronized ExecutorService getGenerationExecutor() {
+        if(sGenerationExecutor == null)
+            sGenerationExecutor = Executors.newSingleThreadExecutor(new WheelThreadFactory("PrizeWheelView-generator"));
+        return sGenerationExecutor;
+    }
+
+    /**
+     * @return A few background threads on which section images are decoded and cropped in parallel,
+     * one less than the CPU cores, up to {@link #MAXIMUM_DECODE_THREADS}
+     */
+    static synchronized ExecutorService getDecodeExecutor() {
+        if(sDecodeExecutor == null) {
+            int threads = Math.max(1, Math.min(MAXIMUM_DECODE_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+            sDecodeExecutor = Executors.newFixedThreadPool(threads, new WheelThreadFactory("PrizeWheelView-decoder"));
+        }
+        return sDecodeExecutor;
+    }
+
+    /**
+     * @return A Handler bound to the main looper, used to hand results back to the UI thread
+     */
+    static synchronized Handler getMainHandler() {
+        if(sMainHandler == null)
+            sMainHandler = new Handler(Looper.getMainLooper());
+        return sMainHandler;
+    }
+
+
+    /**
+     * Creates daemon threads with background priority, so wheel work never competes with the UI thread
+     */
+    private static class WheelThreadFactory implements ThreadFactory {
+
+        private final String mName;
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        WheelThreadFactory(String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, mName + "-" + mCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Angle math shared by the wheel's rotation, touch tracking and fling prediction.
+ * Kept free of Android classes, so it can be unit tested and benchmarked on the JVM.
+ */
+class WheelGeometry {
+
+    /**
+     * Normalizes an angle to the (0, 360] range used by {@link PrizeWheelView} to report rotations
+     */
+    static double normalizeRotation(double angle) {
+        double normalized = angle % 360;
+        if(normalized > 0)
+            return normalized;
+        else
+            return 360 + normalized;
+    }
+
+    /**
+     * @return The angle of the unit circle, in degrees counter-clockwise, of a touch relative to the wheel's center
+     */
+    static double getTouchAngle(double xTouch, double yTouch, int wheelWidth, int wheelHeight) {
+        double x = xTouch - (wheelWidth / 2d);
+        double y = wheelHeight - yTouch - (wheelHeight / 2d);
+
+        return (Math.atan2(y,x) * 180) / Math.PI;
+    }
+
+    /**
+     * @return The angle modulo 360, in the [0, 360) range
+     */
+    static double positiveModulo(double angle) {
+        double modulo = angle % 360;
+        return modulo < 0 ? modulo + 360 : modulo;
+    }
+
+    /**
+     * Computes the bounds of a pie slice (an arc drawn with its center, as
+     * {@link android.graphics.Canvas#drawArc(android.graphics.RectF, float, float, boolean, android.graphics.Paint)} does)
+     * from its geometry: the center, both ends of the arc, and any of the oval's extremes the arc passes through.
+     * @param left The left of the oval's bounds
+     * @param top The top of the oval's bounds
+     * @param right The right of the oval's bounds
+     * @param bottom The bottom of the oval's bounds
+     * @param startAngle Where the arc starts, in degrees clockwise from the positive x axis
+     * @param sweepAngle The degrees the arc sweeps, clockwise
+     * @param outBounds Gets the slice's left, top, right and bottom
+     */
+    static void getSliceBounds(float left, float top, float right, float bottom, float startAngle, float sweepAngle, float[] outBounds) {
+        double centerX = (left + right) / 2d;
+        double centerY = (top + bottom) / 2d;
+        double radiusX = (right - left) / 2d;
+        double radiusY = (bottom - top) / 2d;
+
+        //Start with the center, then add both ends of the arc
+        double minX = centerX, maxX = centerX, minY = centerY, maxY = centerY;
+        double start = Math.toRadians(startAngle);
+        double end = Math.toRadians(startAngle + sweepAngle);
+
+        double x = centerX + radiusX * Math.cos(start), y = centerY + radiusY * Math.sin(start);
+        minX = Math.min(minX, x); maxX = Math.max(maxX, x); minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+        x = centerX + radiusX * Math.cos(end); y = centerY + radiusY * Math.sin(end);
+        minX = Math.min(minX, x); maxX = Math.max(maxX, x); minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+
+        //Add the oval's right (0), bottom (90), left (180) and top (270) extremes, if the arc passes through them
+        if(sweepAngle >= 360 || angleInArc(0, startAngle, sweepAngle))     maxX = right;
+        if(sweepAngle >= 360 || angleInArc(90, startAngle, sweepAngle))    maxY = bottom;
+        if(sweepAngle >= 360 || angleInArc(180, startAngle, sweepAngle))   minX = left;
+        if(sweepAngle >= 360 || angleInArc(270, startAngle, sweepAngle))   minY = top;
+
+        outBounds[0] = (float) minX;
+        outBounds[1] = (float) minY;
+        outBounds[2] = (float) maxX;
+        outBounds[3] = (float) maxY;
+    }
+
+    /**
+     * @return The width of a section of a given sweep angle at a given distance from the wheel's center,
+     * measured across the section's bisector
+     */
+    static double getSectionWidthAt(double distance, double sweepAngle) {
+        if(sweepAngle >= 180)
+            return 2 * distance;
+        return 2 * distance * Math.sin(Math.toRadians(sweepAngle / 2));
+    }
+
+    /**
+     * Fits a text label, drawn along a section's bisector and ending at outerDistance from the wheel's center,
+     * into the section: shrinks it so it's no wider than the section where it starts, and no longer than the room
+     * left down to innerDistance.
+     * @param widthPerTextSize The text's width at a text size of 1
+     * @param maxTextSize The text size to use if there's room for it
+     * @param minTextSize The smallest readable text size
+     * @param outerDistance The distance from the center at which the text ends
+     * @param innerDistance The distance from the center the text must not go past
+     * @param sweepAngle The section's sweep angle
+     * @return The text size to draw the label with, or 0 if the label doesn't fit at the minimum text size
+     */
+    static float fitLabelTextSize(float widthPerTextSize, float maxTextSize, float minTextSize,
+                                  float outerDistance, float innerDistance, double sweepAngle) {
+        float textSize = maxTextSize;
+
+        //No longer than the room along the radius
+        if(widthPerTextSize * textSize > outerDistance - innerDistance)
+            textSize = (outerDistance - innerDistance) / widthPerTextSize;
+
+        //No taller than the section is wide where the text starts, which is where it's narrowest
+        float innerEnd = outerDistance - widthPerTextSize * textSize;
+        float sectionWidth = (float) getSectionWidthAt(innerEnd, sweepAngle) * Constants.LABEL_FILL;
+        if(textSize > sectionWidth)
+            textSize = sectionWidth;
+
+        return textSize >= minTextSize ? textSize : 0;
+    }
+
+    /**
+     * Fits an icon, drawn on a section's bisector and ending at outerDistance from the wheel's center,
+     * into the section: shrinks it so it's no wider than the section where it starts.
+     * @return The size to draw the icon with, or 0 if the icon doesn't fit at the minimum size
+     */
+    static float fitLabelIconSize(float maxSize, float minSize, float outerDistance, double sweepAngle) {
+
+        //The section's width grows linearly with the distance, so size <= fill * width(outerDistance - size) is solved directly
+        double widthPerDistance = getSectionWidthAt(1, sweepAngle) * Constants.LABEL_FILL;
+        float size = (float) Math.min(maxSize, widthPerDistance * outerDistance / (1 + widthPerDistance));
+
+        return size >= minSize ? size : 0;
+    }
+
+    /**
+     * @return true if the angle lies within the arc going clockwise sweepAngle degrees from startAngle
+     */
+    static boolean angleInArc(double angle, double startAngle, double sweepAngle) {
+        return positiveModulo(angle - startAngle) <= sweepAngle;
+    }
+
+    /**
+     * Finds the bounds of the non transparent pixels of an image, reading its pixels only once.
+     * @param pixels The image's pixels, row by row
+     * @param width The image's width
+     * @param height The image's height
+     * @param outBounds Gets the left, top, right and bottom of the non transparent pixels, inclusive.
+     *                  Set to the whole image if every pixel is transparent.
+     */
+    static void getOpaqueBounds(int[] pixels, int width, int height, int[] outBounds) {
+        int left = width, top = height, right = -1, bottom = -1;
+
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int rowLeft = -1, rowRight = -1;
+
+            for (int x = 0; x < width; x++) {
+                if (pixels[row + x] != 0) {
+                    rowLeft = x;
+                    break;
+                }
+            }
+            if (rowLeft == -1)
+                continue;
+
+            for (int x = width - 1; x >= rowLeft; x--) {
+                if (pixels[row + x] != 0) {
+                    rowRight = x;
+                    break;
+                }
+            }
+
+            if (top == height)
+                top = y;
+            bottom = y;
+            left = Math.min(left, rowLeft);
+            right = Math.max(right, rowRight);
+        }
+
+        if (bottom == -1) {         //Fully transparent
+            left = 0;
+            top = 0;
+            right = width - 1;
+            bottom = height - 1;
+        }
+
+        outBounds[0] = left;
+        outBounds[1] = top;
+        outBounds[2] = right;
+        outBounds[3] = bottom;
+    }
+
+}
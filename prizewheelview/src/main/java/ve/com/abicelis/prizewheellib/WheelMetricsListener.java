@@ -0,0 +1,21 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Receives performance metrics of a {@link PrizeWheelView}: frame timings of each spin, and
+ * timings of each wheel generation. Set it with {@link PrizeWheelView#setWheelMetricsListener(WheelMetricsListener)}.
+ * Both methods are called on the UI thread.
+ */
+
+public interface WheelMetricsListener {
+
+    /**
+     * Called when a spin (a fling, or a spin to a section) ends, either settled or stopped.
+     * NOTE: The same SpinMetrics instance is reused for every spin, copy any value you want to keep.
+     */
+    void onSpinMetrics(SpinMetrics metrics);
+
+    /**
+     * Called when a wheel generation ends, once the new wheel is shown.
+     */
+    void onGenerationMetrics(GenerationMetrics metrics);
+}
@@ -0,0 +1,124 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * Moves a {@link WheelRotation} the way {@link PrizeWheelView} does on every touch event and display frame:
+ * drags tracked by angle with an {@link AngularVelocityTracker}, and spins played from a reused {@link SpinCurve}.
+ * Nothing is allocated once a drag or spin starts, so it can be run on every frame.
+ */
+class WheelMotion {
+
+    private final WheelRotation rotation;
+    private final AngularVelocityTracker velocityTracker = new AngularVelocityTracker();
+    private final FlingCurve flingCurve = new FlingCurve();
+    private final TargetedSpinCurve targetedSpinCurve = new TargetedSpinCurve();
+
+    //Drag state
+    private int width, height;
+    private double dragDegrees;                 //Tracked but not applied yet, counter-clockwise
+
+    //Spin state
+    private SpinCurve curve;
+    private long startTimeNanos;
+    private double appliedAngle;
+
+
+    WheelMotion(WheelRotation rotation) {
+        this.rotation = rotation;
+    }
+
+
+    /* Drags */
+
+    /**
+     * Starts tracking a touch, call it on touch down
+     * @param width The width of the wheel the touch is on
+     * @param height The height of the wheel the touch is on
+     */
+    void startDrag(int width, int height) {
+        this.width = width;
+        this.height = height;
+        velocityTracker.clear();
+        dragDegrees = 0;
+    }
+
+    /**
+     * Tracks a touch sample, batched ones first, in the order they happened. The wheel isn't rotated
+     * until {@link #applyDrag()} is called.
+     * @param timeMillis When the touch was at this position, see {@link android.view.MotionEvent#getEventTime()}
+     */
+    void addDragSample(long timeMillis, double x, double y) {
+        dragDegrees += velocityTracker.addSample(timeMillis, WheelGeometry.getTouchAngle(x, y, width, height));
+    }
+
+    /**
+     * Rotates the wheel by the samples tracked since the last call. Counter-clockwise touches rotate
+     * the wheel by negative degrees.
+     * @return true if the wheel was rotated
+     */
+    boolean applyDrag() {
+        if(dragDegrees == 0)
+            return false;
+        rotation.rotate(-dragDegrees);
+        dragDegrees = 0;
+        return true;
+    }
+
+    /**
+     * @param x Where the touch was released
+     * @param y Where the touch was released
+     * @return The speed of the touch along the circle it was rotating on, in pixels per second, counter-clockwise
+     */
+    double getReleaseVelocity(double x, double y) {
+        double radius = Math.hypot(x - width / 2d, y - height / 2d);
+        return Math.toRadians(velocityTracker.getVelocity()) * radius;
+    }
+
+    /**
+     * Drops the tracked touch, call it once the touch is released or cancelled
+     */
+    void endDrag() {
+        velocityTracker.clear();
+        dragDegrees = 0;
+    }
+
+
+    /* Spins */
+
+    /**
+     * Starts a fling, replacing any spin being played
+     * @param velocity The fling's initial velocity, already dampened
+     * @param velocityDampening See {@link FlingCurve#set(float, float)}
+     */
+    void startFling(float velocity, float velocityDampening, long startTimeNanos) {
+        flingCurve.set(velocity, velocityDampening);
+        startSpin(flingCurve, startTimeNanos);
+    }
+
+    /**
+     * Starts a spin of an exact angle, replacing any spin being played
+     * @param totalAngle The degrees to rotate the wheel by
+     */
+    void startTargetedSpin(double totalAngle, long durationNanos, long startTimeNanos) {
+        targetedSpinCurve.set(totalAngle, durationNanos);
+        startSpin(targetedSpinCurve, startTimeNanos);
+    }
+
+    /**
+     * Rotates the wheel to where the spin should be at a frame's time
+     * @return true if the spin goes on after this frame
+     */
+    boolean stepSpin(long frameTimeNanos) {
+        long elapsedNanos = frameTimeNanos - startTimeNanos;
+        double angle = curve.getAngleAt(elapsedNanos);
+        rotation.rotate(angle - appliedAngle);
+        appliedAngle = angle;
+        return elapsedNanos < curve.getDurationNanos();
+    }
+
+
+    private void startSpin(SpinCurve curve, long startTimeNanos) {
+        this.curve = curve;
+        this.startTimeNanos = startTimeNanos;
+        appliedAngle = 0;
+    }
+}
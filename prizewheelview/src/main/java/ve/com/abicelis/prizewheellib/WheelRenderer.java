@@ -0,0 +1,839 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.support.annotation.ColorInt;
+import android.support.annotation.ColorRes;
+import android.support.annotation.DrawableRes;
+import android.support.v4.content.ContextCompat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ve.com.abicelis.prizewheellib.exceptions.InvalidWheelSectionDataException;
+import ve.com.abicelis.prizewheellib.model.SectionType;
+import ve.com.abicelis.prizewheellib.model.WheelBitmapSection;
+import ve.com.abicelis.prizewheellib.model.WheelColorSection;
+import ve.com.abicelis.prizewheellib.model.WheelDrawableSection;
+import ve.com.abicelis.prizewheellib.model.WheelFileSection;
+import ve.com.abicelis.prizewheellib.model.WheelSection;
+import ve.com.abicelis.prizewheellib.model.WheelStreamSection;
+import ve.com.abicelis.prizewheellib.model.WheelUriSection;
+
+/**
+ * Draws the wheel image from a snapshot of the {@link PrizeWheelView}'s settings.
+ * A snapshot is used so the wheel can be generated on a worker thread while the
+ * view keeps receiving setter calls on the UI thread.
+ */
+class WheelRenderer {
+
+    private static final int PLACEHOLDER_SECTION_COLOR = Color.LTGRAY;
+    private static final int DISK_CACHE_KEY_VERSION = 2;
+    private static final int LABEL_MARGIN_DP = 4;
+    private static final float LABEL_MEASURE_TEXT_SIZE = 100;
+    private static final int LABEL_PAINT_FLAGS = Paint.ANTI_ALIAS_FLAG;
+
+    private final Context mContext;
+    private final List<WheelSection> mWheelSections;
+    private final int wheelWidth, wheelHeight;
+    private @ColorRes int mWheelBorderLineColor;
+    private int mWheelBorderLineThickness;
+    private @ColorRes int mWheelSeparatorLineColor;
+    private int mWheelSeparatorLineThickness;
+    private final @ColorRes int mLabelTextColor;
+    private final int mLabelTextSize;
+    private final WheelSliceGeometry mGeometry;
+    private final WheelSectionAngles mSectionAngles;
+    private final float startAngle;
+    private Bitmap.Config mBitmapConfig = Bitmap.Config.ARGB_8888;
+    private @ColorInt int mBackgroundColor = Color.TRANSPARENT;
+
+    //Prepared drawing state
+    private RectF mBox;
+    private PreparedSection[] mSections;
+    private Paint mSeparatorPaint;
+    private Paint mBorderPaint;
+    private Paint mLabelPaint;
+    private boolean mPrepared;
+    private Bitmap mDiskCacheBitmap;            //Bitmap drawn by this renderer and handed to the disk cache
+
+    //Optional phase timings, filled in while generating
+    private GenerationMetrics mMetrics;
+
+
+    WheelRenderer(Context context, List<WheelSection> wheelSections, int wheelWidth, int wheelHeight,
+                  @ColorRes int borderLineColor, int borderLineThickness,
+                  @ColorRes int separatorLineColor, int separatorLineThickness,
+                  @ColorRes int labelTextColor, int labelTextSize) {
+        mContext = context;
+        mWheelSections = new ArrayList<>(wheelSections);
+        this.wheelWidth = wheelWidth;
+        this.wheelHeight = wheelHeight;
+        mWheelBorderLineColor = borderLineColor;
+        mWheelBorderLineThickness = borderLineThickness;
+        mWheelSeparatorLineColor = separatorLineColor;
+        mWheelSeparatorLineThickness = separatorLineThickness;
+        mLabelTextColor = labelTextColor;
+        mLabelTextSize = labelTextSize;
+
+        // _______________________
+        // |                     |
+        // |                     |
+        // |          ^ -----    |
+        // |        *   *   <------ startAngle
+        // |      *       *      |
+        // |    *      <----*------ sweepAngle of the first section
+        // |       *  _  *       |
+        // _______________________
+
+        float[] weights = new float[mWheelSections.size()];
+        for(int i = 0; i < weights.length; i++)
+            weights[i] = mWheelSections.get(i).getWeight();
+        mGeometry = WheelSliceGeometry.get(wheelWidth, wheelHeight, weights);
+        mSectionAngles = mGeometry.getSectionAngles();
+        startAngle = mGeometry.getStartAngle();
+    }
+
+
+    /**
+     * @return The angle at which the first section starts, used to compute the selected section
+     */
+    float getAngleOffset() {
+        return startAngle;
+    }
+
+    /**
+     * @return The arcs of the sections, used to compute the selected section
+     */
+    WheelSectionAngles getSectionAngles() {
+        return mSectionAngles;
+    }
+
+    /**
+     * Draws the wheel onto opaque RGB_565 bitmaps instead of ARGB_8888 ones, filling the area around it with a color
+     */
+    void setOpaqueBackground(@ColorInt int backgroundColor) {
+        mBitmapConfig = Bitmap.Config.RGB_565;
+        mBackgroundColor = backgroundColor | 0xFF000000;
+    }
+
+    int getWidth() {
+        return wheelWidth;
+    }
+
+    int getHeight() {
+        return wheelHeight;
+    }
+
+    /**
+     * @return A key identifying the wheel this renderer draws, to store it in the {@link WheelDiskCache},
+     * or null if it can't be cached: BITMAP sections have no identity which survives an app restart,
+     * and the cache only stores ARGB_8888 wheels.
+     */
+    String getDiskCacheKey() {
+        if(mBitmapConfig != Bitmap.Config.ARGB_8888)
+            return null;
+
+        Resources res = mContext.getResources();
+        StringBuilder key = new StringBuilder();
+        key.append(DISK_CACHE_KEY_VERSION)
+                .append('|').append(getAppUpdateTime())
+                .append('|').append(res.getConfiguration().densityDpi).append('/').append(res.getConfiguration().uiMode)
+                .append('|').append(wheelWidth).append('x').append(wheelHeight)
+                .append('|').append(mWheelSeparatorLineColor == -1 ? "-" : ContextCompat.getColor(mContext, mWheelSeparatorLineColor) + "/" + mWheelSeparatorLineThickness)
+                .append('|').append(mWheelBorderLineColor == -1 ? "-" : ContextCompat.getColor(mContext, mWheelBorderLineColor) + "/" + mWheelBorderLineThickness)
+                .append('|').append(mLabelTextColor == -1 ? "-" : ContextCompat.getColor(mContext, mLabelTextColor)).append('/').append(mLabelTextSize);
+
+        for(WheelSection section : mWheelSections) {
+            switch (section.getType()) {
+                case COLOR:
+                    key.append("|c").append(ContextCompat.getColor(mContext, ((WheelColorSection)section).getColor()));
+                    break;
+                case DRAWABLE:
+                    key.append("|d").append(((WheelDrawableSection)section).getDrawableRes());
+                    break;
+                default:
+                    return null;
+            }
+
+            if(section.getLabel() != null)
+                key.append("/l").append(section.getLabel().length()).append(':').append(section.getLabel());
+            if(section.getLabelIcon() != -1)
+                key.append("/i").append(section.getLabelIcon());
+            key.append("/w").append(section.getWeight());
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.toString().getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for(byte b : hash)
+                hex.append(String.format(Locale.US, "%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records a bitmap drawn by this renderer as handed to {@link WheelDiskCache#putAsync(Context, String, Bitmap)},
+     * which may still be writing it, so it must not be drawn over
+     */
+    void setDiskCacheBitmap(Bitmap bitmap) {
+        mDiskCacheBitmap = bitmap;
+    }
+
+    /**
+     * @return true if the given bitmap was handed to the disk cache, see {@link #setDiskCacheBitmap(Bitmap)}
+     */
+    boolean isSharedWithDiskCache(Bitmap bitmap) {
+        return bitmap != null && bitmap == mDiskCacheBitmap;
+    }
+
+    /**
+     * Sets the metrics in which the time spent in each generation phase gets accumulated, or null to skip timing
+     */
+    void setMetrics(GenerationMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Prepares a cheap version of the wheel: color sections are drawn as they are and image
+     * sections as plain arcs, no decoding is done. Meant to be shown while {@link #prepare()}
+     * runs on a worker thread.
+     */
+    void preparePlaceholder() {
+        initPaints();
+
+        for(int i = 0; i < mWheelSections.size(); i++)
+            mSections[i] = prepareSection(i, mWheelSections.get(i), true, false, null);
+    }
+
+    /**
+     * Prepares everything needed to draw the wheel: section images are decoded and set as
+     * shaders on each section's Paint, so {@link #draw(Canvas)} only issues draw calls.
+     * FILE, URI and STREAM sections are prepared as placeholders, to be decoded afterwards in parallel
+     * with {@link #prepareSectionUpdate(int, WheelSection)}, see {@link #isSourceSection(WheelSection)}.
+     * NOTE: When called from a worker thread, the preparation is abandoned (false is returned)
+     * as soon as the thread gets interrupted.
+     */
+    boolean prepare() {
+        return prepare(false);
+    }
+
+    /**
+     * Same as {@link #prepare()}.
+     * @param parallel true to decode DRAWABLE sections in parallel on the {@link WheelExecutors#getDecodeExecutor()}
+     * threads, while this thread prepares the rest. Must be false on the UI thread, which mustn't wait on the
+     * decode threads while they load FILE, URI and STREAM sections.
+     */
+    boolean prepare(boolean parallel) {
+        initPaints();
+
+        //Fork: one task per section to decode, when there's more than one
+        int sectionCount = mWheelSections.size();
+        List<Future<PreparedSection>> tasks = new ArrayList<>(Collections.<Future<PreparedSection>>nCopies(sectionCount, null));
+        final AtomicLong sectionsNanos = new AtomicLong();
+        if(parallel && countSectionsToDecode() > 1) {
+            ExecutorService executor = WheelExecutors.getDecodeExecutor();
+            for(int i = 0; i < sectionCount; i++) {
+                if(!needsDecoding(mWheelSections.get(i)))
+                    continue;
+
+                final int index = i;
+                tasks.set(i, executor.submit(new Callable<PreparedSection>() {
+                    @Override
+                    public PreparedSection call() {
+                        long start = System.nanoTime();
+                        PreparedSection prepared = prepareSection(index, mWheelSections.get(index), false, false, new Matrix());
+                        sectionsNanos.addAndGet(System.nanoTime() - start);
+                        return prepared;
+                    }
+                }));
+            }
+        }
+
+        try {
+            Matrix shaderMatrix = new Matrix();
+            for(int i = 0; i < sectionCount; i++) {
+
+                //Preparation was cancelled, bail out
+                if(Thread.currentThread().isInterrupted()) {
+                    cancelAll(tasks);
+                    return false;
+                }
+
+                if(tasks.get(i) == null) {
+                    long start = System.nanoTime();
+                    mSections[i] = prepareSection(i, mWheelSections.get(i), false, false, shaderMatrix);
+                    sectionsNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+
+            //Join: the decoded sections, in order
+            for(int i = 0; i < sectionCount; i++) {
+                if(tasks.get(i) != null)
+                    mSections[i] = tasks.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(tasks);
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            cancelAll(tasks);
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new InvalidWheelSectionDataException("Problem preparing the wheel's sections", e.getCause());
+        }
+        mPrepared = true;
+
+        //Whatever wasn't spent getting section images went into the slices and their shaders.
+        //Sections may have been prepared in parallel, so these are summed across threads
+        if(mMetrics != null)
+            mMetrics.maskNanos += Math.max(0, sectionsNanos.get() - mMetrics.decodeNanos - mMetrics.cropNanos);
+
+        return true;
+    }
+
+    /**
+     * @return true if {@link #prepare()} may decode an image for the section, unless it's in the {@link WheelBitmapCache}.
+     * FILE, URI and STREAM sections are decoded afterwards, see {@link #isSourceSection(WheelSection)}.
+     */
+    private static boolean needsDecoding(WheelSection section) {
+        return section.getType() == SectionType.DRAWABLE;
+    }
+
+    private int countSectionsToDecode() {
+        int count = 0;
+        for(WheelSection section : mWheelSections) {
+            if(needsDecoding(section))
+                count++;
+        }
+        return count;
+    }
+
+    private static void cancelAll(List<? extends Future<?>> tasks) {
+        for(Future<?> task : tasks) {
+            if(task != null)
+                task.cancel(true);
+        }
+    }
+
+    /**
+     * @return true if {@link #prepare()} completed, so sections and decorations can be updated
+     */
+    boolean isPrepared() {
+        return mPrepared;
+    }
+
+    /**
+     * Prepares a section to replace the one at a given index, without touching the current drawing
+     * state, so it can be called from a worker thread while the wheel is being drawn.
+     * Apply the result on the drawing thread with {@link #applySection(int, WheelSection, PreparedSection)}.
+     * NOTE: The section must have the same weight as the one it replaces.
+     */
+    PreparedSection prepareSectionUpdate(int index, WheelSection section) {
+        return prepareSection(index, section, false, true, new Matrix());
+    }
+
+    /**
+     * Prepares a section to replace the one at a given index as a plain arc, nothing is decoded.
+     * Used in place of image sections which couldn't be loaded.
+     */
+    PreparedSection prepareSectionPlaceholder(int index, WheelSection section) {
+        return prepareSection(index, section, true, false, null);
+    }
+
+    void applySection(int index, WheelSection section, PreparedSection preparedSection) {
+        mWheelSections.set(index, section);
+        mSections[index] = preparedSection;
+    }
+
+    /**
+     * @return The sections of the wheel, including the ones applied with {@link #applySection(int, WheelSection, PreparedSection)}
+     */
+    List<WheelSection> getSections() {
+        return mWheelSections;
+    }
+
+    /**
+     * @return true if the section's image is read from a file, Uri or stream. Those are slow to read,
+     * so they're decoded on their own, after the wheel is shown
+     */
+    static boolean isSourceSection(WheelSection section) {
+        switch (section.getType()) {
+            case FILE:
+            case URI:
+            case STREAM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Replaces the border and separator settings. Only their Paints are rebuilt, sections stay prepared.
+     */
+    void setDecorations(@ColorRes int borderLineColor, int borderLineThickness,
+                        @ColorRes int separatorLineColor, int separatorLineThickness) {
+        mWheelBorderLineColor = borderLineColor;
+        mWheelBorderLineThickness = borderLineThickness;
+        mWheelSeparatorLineColor = separatorLineColor;
+        mWheelSeparatorLineThickness = separatorLineThickness;
+        initDecorationPaints();
+    }
+
+    /**
+     * Redraws the region of a bitmap, previously drawn by this renderer, covered by a section.
+     * The region is cleared and everything crossing it is drawn again, clipped to it, so the
+     * cost depends on the section's size rather than on the whole wheel's.
+     */
+    void redrawSection(Bitmap bitmap, int index) {
+        Rect region = mGeometry.getSectionRect(index);
+
+        //Leave room for the anti aliased edges and the separators on both sides
+        int outset = 2 + (mSeparatorPaint != null ? (int) Math.ceil(mSeparatorPaint.getStrokeWidth() / 2) : 0);
+        region.inset(-outset, -outset);
+
+        Canvas canvas = new Canvas(bitmap);
+        canvas.clipRect(region);
+        clear(canvas);
+        draw(canvas);
+    }
+
+    /**
+     * Redraws a whole bitmap previously drawn by this renderer, from the already prepared sections
+     */
+    void redraw(Bitmap bitmap) {
+        Canvas canvas = new Canvas(bitmap);
+        clear(canvas);
+        draw(canvas);
+    }
+
+    /**
+     * Clears a canvas to transparent, or to the background color on opaque wheels
+     */
+    private void clear(Canvas canvas) {
+        canvas.drawColor(mBackgroundColor, PorterDuff.Mode.SRC);
+    }
+
+    /**
+     * Draws the prepared wheel onto a canvas, starting at (0,0).
+     * Either {@link #prepare()} or {@link #preparePlaceholder()} must have been called first.
+     */
+    void draw(Canvas canvas) {
+        drawSections(canvas);
+        drawSeparatorsAndBorder(canvas);
+    }
+
+    private void drawSections(Canvas canvas) {
+        for(int i = 0; i < mSections.length; i++) {
+            //Rotate the canvas around its center, so the section is drawn centered at the bottom of the wheel.
+            //Image sections' shaders are laid out for that position.
+            int saveCount = canvas.save();
+            canvas.rotate(getBisectorAngle(i) - 90, wheelWidth/2, wheelHeight/2);
+            canvas.drawPath(mGeometry.getSlicePath(i), mSections[i].paint);
+            canvas.restoreToCount(saveCount);
+        }
+
+        drawLabels(canvas);
+    }
+
+    /**
+     * Draws each section's label along its bisector: the icon near the outer edge, and the text
+     * right aligned next to it, both at the sizes computed by {@link #prepareLabel(PreparedSection, WheelSection, float, boolean)}
+     */
+    private void drawLabels(Canvas canvas) {
+        float centerX = wheelWidth/2f;
+        float centerY = wheelHeight/2f;
+
+        for(int i = 0; i < mSections.length; i++) {
+            PreparedSection section = mSections[i];
+            if(section.labelTextSize == 0 && section.labelIcon == null)
+                continue;
+
+            //Rotate the canvas so the section's bisector points right, from the center
+            int saveCount = canvas.save();
+            canvas.rotate(getBisectorAngle(i), centerX, centerY);
+
+            if(section.labelTextSize != 0) {
+                mLabelPaint.setTextSize(section.labelTextSize);
+                float baseline = centerY - (mLabelPaint.ascent() + mLabelPaint.descent())/2;
+                canvas.drawText(section.label, centerX + section.labelOuterDistance, baseline, mLabelPaint);
+            }
+
+            if(section.labelIcon != null) {
+                //Icons face outwards, their bounds are centered on (0,0)
+                float iconDistance = section.labelOuterDistance + DimensionUtil.convertDpToPixel(LABEL_MARGIN_DP) + section.labelIconSize/2;
+                canvas.translate(centerX + iconDistance, centerY);
+                canvas.rotate(90);
+                section.labelIcon.draw(canvas);
+            }
+
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    private void drawSeparatorsAndBorder(Canvas canvas) {
+        if(mSeparatorPaint != null)
+            canvas.drawLines(mGeometry.getSeparatorLines(), mSeparatorPaint);
+
+        if(mBorderPaint != null)
+            canvas.drawCircle(wheelWidth/2, wheelHeight/2, (Math.min(wheelWidth, wheelHeight)-mWheelBorderLineThickness)/2, mBorderPaint);
+    }
+
+    /**
+     * Draws the prepared wheel onto a bitmap taken from the {@link WheelBitmapPool}
+     */
+    Bitmap drawToBitmap() {
+        Bitmap result = WheelBitmapPool.acquire(wheelWidth, wheelHeight, mBitmapConfig);
+        Canvas canvas = new Canvas(result);
+        if(mBitmapConfig == Bitmap.Config.RGB_565)
+            canvas.drawColor(mBackgroundColor);
+
+        long start = System.nanoTime();
+        drawSections(canvas);
+        long sectionsDrawn = System.nanoTime();
+        drawSeparatorsAndBorder(canvas);
+
+        if(mMetrics != null) {
+            mMetrics.compositeNanos += sectionsDrawn - start;
+            mMetrics.separatorsNanos += System.nanoTime() - sectionsDrawn;
+        }
+        return result;
+    }
+
+
+    /**
+     * Prepares the Paint and the label of a section.
+     * Only reads the renderer's state, so it can run on a worker thread while the wheel is being drawn.
+     * @param placeholder true to paint image sections as plain arcs and leave icons out, so nothing is decoded
+     * @param loadSource false to paint FILE, URI and STREAM sections as plain arcs, true to decode them
+     * @param shaderMatrix A Matrix to reuse for the image shader, or null if placeholder is true
+     */
+    private PreparedSection prepareSection(int index, WheelSection section, boolean placeholder, boolean loadSource, Matrix shaderMatrix) {
+        PreparedSection prepared = new PreparedSection();
+        float sweepAngle = getSweepAngle(index);
+
+        if(section.getType().equals(SectionType.COLOR)) {
+            prepared.paint = getColorResPaint(((WheelColorSection)section).getColor());
+        } else if(placeholder || (!loadSource && isSourceSection(section))) {
+            prepared.paint = getColorPaint(PLACEHOLDER_SECTION_COLOR);
+        } else {
+            //Get a Rect enclosing the slice of this section, as drawn centered at the bottom of the wheel
+            Rect drawnMaskRect = mGeometry.getSliceRect(index);
+
+            //Grab the bitmap for this section
+            Bitmap sectionBitmap = getSectionBitmap(section, drawnMaskRect.width(), drawnMaskRect.height());
+
+
+            //The section bitmap is used as a shader, center cropped onto the Rect enclosing the slice.
+            //Sections get painted straight onto the canvas this way, no intermediate bitmaps are needed.
+            BitmapShader shader = new BitmapShader(sectionBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            ImageUtil.getCenterCropMatrix(sectionBitmap.getWidth(), sectionBitmap.getHeight(), drawnMaskRect, shaderMatrix);
+            shader.setLocalMatrix(shaderMatrix);
+
+            Paint shaderPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+            shaderPaint.setStyle(Paint.Style.FILL);
+            shaderPaint.setShader(shader);
+            prepared.paint = shaderPaint;
+        }
+
+        prepareLabel(prepared, section, sweepAngle, !placeholder);
+        return prepared;
+    }
+
+    /**
+     * Sizes a section's label to fit the section, see {@link WheelGeometry#fitLabelIconSize(float, float, float, double)}
+     * and {@link WheelGeometry#fitLabelTextSize(float, float, float, float, float, double)}. Labels which don't fit
+     * at their minimum size are left out.
+     * @param withIcon false to leave the icon out, so no drawable is loaded
+     */
+    private void prepareLabel(PreparedSection prepared, WheelSection section, float sweepAngle, boolean withIcon) {
+        float radius = Math.min(mBox.width(), mBox.height()) / 2;
+        float margin = DimensionUtil.convertDpToPixel(LABEL_MARGIN_DP);
+        float outerDistance = radius - margin;
+
+        if(withIcon && section.getLabelIcon() != -1) {
+            float maxIconSize = Math.min(DimensionUtil.convertDpToPixel(Constants.DEFAULT_LABEL_ICON_SIZE_DP), radius * Constants.LABEL_INNER_RADIUS);
+            float minIconSize = DimensionUtil.convertDpToPixel(Constants.MINIMUM_LABEL_ICON_SIZE_DP);
+            float iconSize = WheelGeometry.fitLabelIconSize(maxIconSize, minIconSize, outerDistance, sweepAngle);
+
+            Drawable icon = (iconSize != 0 ? ContextCompat.getDrawable(mContext, section.getLabelIcon()) : null);
+            if(icon != null) {
+                icon.setBounds(Math.round(-iconSize/2), Math.round(-iconSize/2), Math.round(iconSize/2), Math.round(iconSize/2));
+                prepared.labelIcon = icon;
+                prepared.labelIconSize = iconSize;
+                outerDistance -= iconSize + margin;
+            }
+        }
+
+        String label = section.getLabel();
+        if(label != null && !label.isEmpty()) {
+            //Measured with a Paint of its own, built from the same flags rather than copied from
+            //mLabelPaint, which the UI thread may be resizing while drawing labels meanwhile
+            Paint measurePaint = new Paint(LABEL_PAINT_FLAGS);
+            measurePaint.setTextSize(LABEL_MEASURE_TEXT_SIZE);
+            float widthPerTextSize = measurePaint.measureText(label) / LABEL_MEASURE_TEXT_SIZE;
+
+            prepared.label = label;
+            prepared.labelTextSize = WheelGeometry.fitLabelTextSize(widthPerTextSize, DimensionUtil.convertDpToPixel(mLabelTextSize),
+                    DimensionUtil.convertDpToPixel(Constants.MINIMUM_LABEL_TEXT_SIZE_DP),
+                    outerDistance, radius * Constants.LABEL_INNER_RADIUS, sweepAngle);
+        }
+        prepared.labelOuterDistance = outerDistance;
+    }
+
+    /**
+     * Inits the arc bounds, the prepared section array, and the label, separator and border Paints
+     */
+    private void initPaints() {
+        mBox = mGeometry.getOval();
+        mSections = new PreparedSection[mWheelSections.size()];
+
+        mLabelPaint = new Paint(LABEL_PAINT_FLAGS);
+        mLabelPaint.setColor(mLabelTextColor == -1 ? Color.WHITE : ContextCompat.getColor(mContext, mLabelTextColor));
+        mLabelPaint.setTextAlign(Paint.Align.RIGHT);
+
+        initDecorationPaints();
+    }
+
+    /**
+     * Inits the separator and border Paints
+     */
+    private void initDecorationPaints() {
+        mSeparatorPaint = null;
+        mBorderPaint = null;
+
+        //If a wheel separator line color was set
+        if(mWheelSeparatorLineColor != -1) {
+            mSeparatorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mSeparatorPaint.setColor(ContextCompat.getColor(mContext, mWheelSeparatorLineColor));
+            mSeparatorPaint.setStyle(Paint.Style.STROKE);
+            int r = Math.min(wheelWidth, wheelHeight)/2;
+
+            //Thin the separators down on small sections, so they don't cover them
+            float maxSeparatorThickness = (float) WheelGeometry.getSectionWidthAt(r, mSectionAngles.getMinimumSweepAngle()) / 3;
+            mSeparatorPaint.setStrokeWidth(Math.min(DimensionUtil.convertDpToPixel(mWheelSeparatorLineThickness), maxSeparatorThickness));
+        }
+
+
+        //If a wheelBorder line color was set
+        if(mWheelBorderLineColor != -1) {
+            mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mBorderPaint.setColor(ContextCompat.getColor(mContext, mWheelBorderLineColor));
+            mBorderPaint.setStyle(Paint.Style.STROKE);
+            mBorderPaint.setStrokeWidth(DimensionUtil.convertDpToPixel(mWheelBorderLineThickness));
+        }
+    }
+
+    /**
+     * A section ready to be drawn: its Paint, and its label sized to fit it
+     */
+    static class PreparedSection {
+        Paint paint;
+        String label;
+        float labelTextSize;            //0 if there's no text, or it doesn't fit
+        float labelOuterDistance;
+        Drawable labelIcon;             //null if there's no icon, or it doesn't fit
+        float labelIconSize;
+    }
+
+    private float getSweepAngle(int index) {
+        return (float) mSectionAngles.getSweepAngle(index);
+    }
+
+    /**
+     * @return The angle of a section's bisector, in degrees clockwise from the positive x axis
+     */
+    private float getBisectorAngle(int index) {
+        return (float) (startAngle + mSectionAngles.getStartAngle(index) + mSectionAngles.getSweepAngle(index)/2);
+    }
+
+    /**
+     * @return When the app was last installed or updated, so cached wheels are dropped when its resources change
+     */
+    private long getAppUpdateTime() {
+        try {
+            return mContext.getPackageManager().getPackageInfo(mContext.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    private Paint getColorResPaint(@ColorRes int colorRes) {
+        return getColorPaint(ContextCompat.getColor(mContext, colorRes));
+    }
+
+    private Paint getColorPaint(@ColorInt int color) {
+        Paint colorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        colorPaint.setColor(color);
+        colorPaint.setStrokeWidth(1f);
+        colorPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        return colorPaint;
+    }
+
+    /**
+     * @return The bitmap of a BITMAP section, or the bitmap of any other image section center cropped
+     * to the given size. DRAWABLE, FILE and URI bitmaps are kept in the {@link WheelBitmapCache}.
+     */
+    private Bitmap getSectionBitmap(WheelSection section, int width, int height) {
+        Bitmap sectionBitmap;
+        switch (section.getType()) {
+            case BITMAP:
+                sectionBitmap = ((WheelBitmapSection)section).getBitmap();
+                if(sectionBitmap == null)
+                    throw new InvalidWheelSectionDataException("Invalid bitmap. WheelSection data = " + section.toString());
+                break;
+            case DRAWABLE:
+                int drawableRes = ((WheelDrawableSection)section).getDrawableRes();
+                synchronized (WheelBitmapCache.getDrawableLock(drawableRes, width, height)) {
+                    sectionBitmap = getDrawableSectionBitmap(drawableRes, width, height);
+                }
+                break;
+            case FILE:
+            case URI:
+            case STREAM:
+                sectionBitmap = getSourceSectionBitmap(section, width, height);
+                break;
+            default:
+                throw new InvalidWheelSectionDataException("Unexpected SectionType error. Please report this error. Section data=" + section.toString());
+        }
+        return sectionBitmap;
+    }
+
+    /**
+     * @return The bitmap of a drawable resource center cropped to the given size, from the
+     * {@link WheelBitmapCache} or decoded and cached
+     */
+    private Bitmap getDrawableSectionBitmap(@DrawableRes int drawableRes, int width, int height) {
+        long decodeStart = System.nanoTime();
+        Bitmap sectionBitmap = WheelBitmapCache.getDrawableBitmap(drawableRes, width, height);
+        if(sectionBitmap != null) {
+            if(mMetrics != null)
+                mMetrics.addDecodeNanos(System.nanoTime() - decodeStart);
+            return sectionBitmap;
+        }
+
+        //Decode image files (jpg, png) subsampled to the section's size. If it's an xml
+        //based drawable (xml, layer-list, etc), draw it onto a bitmap instead
+        Bitmap fullBitmap = ImageUtil.decodeSampledBitmapFromResource(mContext.getResources(), drawableRes, width, height);
+        boolean ownsFullBitmap = true;
+        if(fullBitmap == null) {
+            Drawable d = ContextCompat.getDrawable(mContext, drawableRes);
+            fullBitmap = ImageUtil.drawableToBitmap(d);
+            ownsFullBitmap = !(d instanceof BitmapDrawable);        //BitmapDrawable bitmaps belong to Resources
+        }
+
+        if(fullBitmap == null) {
+
+            try {
+                //Try to get the name
+                String resourceEntryName = mContext.getResources().getResourceEntryName(drawableRes);
+                throw new InvalidWheelSectionDataException("Problem generating bitmap from drawable. Resource name='" + resourceEntryName + "', Resource ID="+ drawableRes);
+            } catch (Resources.NotFoundException e) {
+                throw new InvalidWheelSectionDataException("Problem generating bitmap from drawable. Could not find resource. Resource ID="+ drawableRes);
+            }
+        }
+
+        long cropStart = System.nanoTime();
+        if(mMetrics != null)
+            mMetrics.addDecodeNanos(cropStart - decodeStart);
+
+        //Crop it to the section's size once, and cache that
+        sectionBitmap = ImageUtil.getCenterCropBitmap(fullBitmap, width, height);
+        if(sectionBitmap != fullBitmap && ownsFullBitmap)
+            WheelBitmapPool.release(fullBitmap);
+        WheelBitmapCache.putDrawableBitmap(drawableRes, width, height, sectionBitmap);
+
+        if(mMetrics != null)
+            mMetrics.addCropNanos(System.nanoTime() - cropStart);
+        return sectionBitmap;
+    }
+
+    /**
+     * @return The bitmap of a FILE, URI or STREAM section center cropped to the given size, from the
+     * {@link WheelBitmapCache} or decoded subsampled to that size. STREAM bitmaps are never cached.
+     */
+    private Bitmap getSourceSectionBitmap(WheelSection section, int width, int height) {
+        String source = null;
+        if(section.getType() == SectionType.FILE) {
+            File file = new File(((WheelFileSection)section).getPath());
+            source = WheelBitmapCache.getFileSource(file.getAbsolutePath(), file.lastModified(), file.length());
+        } else if(section.getType() == SectionType.URI)
+            source = WheelBitmapCache.getUriSource(((WheelUriSection)section).getUri().toString());
+
+        if(source == null)
+            return decodeSourceSectionBitmap(section, width, height);
+
+        synchronized (WheelBitmapCache.getSourceLock(source, width, height)) {
+            Bitmap sectionBitmap = WheelBitmapCache.getSourceBitmap(source, width, height);
+            if(sectionBitmap == null) {
+                sectionBitmap = decodeSourceSectionBitmap(section, width, height);
+                WheelBitmapCache.putSourceBitmap(source, width, height, sectionBitmap);
+            }
+            return sectionBitmap;
+        }
+    }
+
+    private Bitmap decodeSourceSectionBitmap(WheelSection section, int width, int height) {
+        Bitmap fullBitmap;
+        try {
+            switch (section.getType()) {
+                case FILE:
+                    fullBitmap = ImageUtil.decodeSampledBitmapFromFile(((WheelFileSection)section).getPath(), width, height);
+                    break;
+                case URI:
+                    final Uri uri = ((WheelUriSection)section).getUri();
+                    fullBitmap = ImageUtil.decodeSampledBitmapFromStream(new WheelStreamSection.StreamSupplier() {
+                        @Override
+                        public InputStream openStream() throws IOException {
+                            return mContext.getContentResolver().openInputStream(uri);
+                        }
+                    }, width, height);
+                    break;
+                default:
+                    fullBitmap = ImageUtil.decodeSampledBitmapFromStream(((WheelStreamSection)section).getStreamSupplier(), width, height);
+                    break;
+            }
+        } catch (IOException e) {
+            throw new InvalidWheelSectionDataException("Problem reading image. WheelSection data = " + section.toString(), e);
+        }
+
+        if(fullBitmap == null)
+            throw new InvalidWheelSectionDataException("Problem decoding image. WheelSection data = " + section.toString());
+
+        Bitmap sectionBitmap = ImageUtil.getCenterCropBitmap(fullBitmap, width, height);
+        if(sectionBitmap != fullBitmap)
+            WheelBitmapPool.release(fullBitmap);
+        return sectionBitmap;
+    }
+
+}
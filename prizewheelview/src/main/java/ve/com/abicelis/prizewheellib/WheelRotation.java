@@ -0,0 +1,59 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * The canonical rotation state of a wheel: whole turns, plus the angle within the current turn,
+ * in double precision. The wheel's Matrix is set from this state rather than accumulated, so it
+ * never drifts however long the wheel spins, and reading the rotation costs no trigonometry.
+ *
+ * Rotations are in degrees, positive clockwise on screen, same as {@link android.graphics.Matrix#setRotate(float)}.
+ */
+class WheelRotation {
+
+    private long turns;
+    private double angle;           //Within the current turn, [0, 360)
+
+
+    /**
+     * Rotates the wheel a given amount of degrees, the angle its image gets rotated by
+     */
+    void rotate(double degrees) {
+        angle += degrees;
+        if(angle >= 360 || angle < 0) {
+            double wholeTurns = Math.floor(angle / 360);
+            turns += (long) wholeTurns;
+            angle -= wholeTurns * 360;
+            if(angle >= 360)        //Rounding errors occur
+                angle = 0;
+        }
+    }
+
+    /**
+     * @return The angle to rotate the wheel's image by, in the [0, 360) range
+     */
+    double getImageAngle() {
+        return angle;
+    }
+
+    /**
+     * @return The full turns the wheel has rotated, in the sign of its image rotation, see {@link PrizeWheelView#getTotalTurns()}
+     */
+    long getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return The total degrees the wheel has rotated, in the sign of its image rotation
+     */
+    double getTotalDegrees() {
+        return turns * 360d + angle;
+    }
+
+    /**
+     * @param angleOffset The angle at which the wheel's first section starts
+     * @return The rotation of the wheel as reported by {@link PrizeWheelView}, in the (0, 360] range.
+     * Rotating the wheel by n degrees decreases it by n degrees.
+     */
+    double getRotation(float angleOffset) {
+        return WheelGeometry.normalizeRotation(-angle - angleOffset);
+    }
+}
@@ -0,0 +1,114 @@
+package ve.com.abicelis.prizewheellib;
+
+/**
+ * The arcs of a wheel's sections, each one proportional to its section's weight.
+ * Stored as a prefix sum of the sweep angles, so finding the section at a given angle
+ * is a binary search, or a single division when every section has the same weight.
+ */
+class WheelSectionAngles {
+
+    private final double[] startAngles;         //Prefix sums, startAngles[count] is 360
+    private final boolean uniform;
+
+
+    /**
+     * @param weights The weight of each section, all greater than 0
+     */
+    WheelSectionAngles(float[] weights) {
+        int count = weights.length;
+        double totalWeight = 0;
+        boolean uniform = true;
+        for(float weight : weights) {
+            totalWeight += weight;
+            uniform &= (weight == weights[0]);
+        }
+        this.uniform = uniform;
+
+        startAngles = new double[count + 1];
+        double cumulativeWeight = 0;
+        for(int i = 0; i < count; i++) {
+            startAngles[i] = uniform ? i * (360.0 / count) : cumulativeWeight / totalWeight * 360;
+            cumulativeWeight += weights[i];
+        }
+        startAngles[count] = 360;
+    }
+
+    /**
+     * @return A WheelSectionAngles for count sections of the same weight
+     */
+    static WheelSectionAngles uniform(int count) {
+        float[] weights = new float[count];
+        for(int i = 0; i < count; i++)
+            weights[i] = 1;
+        return new WheelSectionAngles(weights);
+    }
+
+
+    int getCount() {
+        return startAngles.length - 1;
+    }
+
+    /**
+     * @return The angle at which a section starts, relative to the start of the first section
+     */
+    double getStartAngle(int index) {
+        return startAngles[index];
+    }
+
+    /**
+     * @return The degrees the arc of a section sweeps
+     */
+    double getSweepAngle(int index) {
+        return startAngles[index + 1] - startAngles[index];
+    }
+
+    /**
+     * @return The sweep angle of the smallest section
+     */
+    double getMinimumSweepAngle() {
+        double minimum = 360;
+        for(int i = 0; i < getCount(); i++)
+            minimum = Math.min(minimum, getSweepAngle(i));
+        return minimum;
+    }
+
+    /**
+     * @return true if every section has the same weight
+     */
+    boolean isUniform() {
+        return uniform;
+    }
+
+    /**
+     * @param rotation The rotation of the wheel, as reported by {@link PrizeWheelView}, in the (0, 360] range
+     * @param markerDegreeOffset The degree offset of the wheel's {@link ve.com.abicelis.prizewheellib.model.MarkerPosition}
+     * @return The index of the section under the marker
+     */
+    int getSectionIndex(double rotation, int markerDegreeOffset) {
+        int count = getCount();
+        double angle = rotation + markerDegreeOffset;
+        if(angle > 360)
+            angle = angle - 360;
+
+        if(uniform) {
+            //A single division, corrected against the start angles so boundaries match getStartAngle() exactly
+            int index = Math.min((int) (angle / startAngles[1]), count - 1);
+            if(index > 0 && startAngles[index] > angle)
+                index--;
+            else if(index < count - 1 && startAngles[index + 1] <= angle)
+                index++;
+            return index;
+        }
+
+        //Find the last section starting at or before the angle
+        int low = 0, high = count - 1;
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if(startAngles[middle] <= angle)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,232 @@
+package ve.com.abicelis.prizewheellib;
+
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The geometry of a wheel's slices, which only depends on the wheel's size and on its sections' weights:
+ * the sections' arcs, the bounds of every slice and the separator lines, computed when it's built,
+ * and the slices' Paths, built on first use. It's cached per size and weights, and shared by every
+ * {@link WheelRenderer}, so regenerating a wheel, or showing several wheels of the same size and sections,
+ * doesn't compute it again. Paths are built under a lock and nothing else changes once built,
+ * so instances can be shared between threads.
+ */
+class WheelSliceGeometry {
+
+    static final int WHEEL_INSET = 2;           //Room left around the wheel's oval for its anti aliased edge
+    static final int CACHE_SIZE = 16;           //Wheel sizes and section weights whose geometry is kept
+
+    private static final Map<Key, WheelSliceGeometry> sCache = new LinkedHashMap<Key, WheelSliceGeometry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, WheelSliceGeometry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private static int sHitCount;
+
+    private final int width, height;
+    private final WheelSectionAngles sectionAngles;
+    private final float startAngle;
+    private final float[] sliceBounds;          //4 per section, of the slice drawn centered at the bottom of the wheel
+    private final float[] sectionBounds;        //4 per section, of the slice drawn in place
+    private final float[] separatorLines;       //4 per section, from the center to where the section starts
+    private final Path[] slicePaths;            //Built on first use
+    private final int[] slicePathIndices;       //Next to each other, sections of the same weight share a slice Path
+
+
+    /**
+     * @return The geometry of a wheel of the given size and section weights, cached or newly computed
+     */
+    static WheelSliceGeometry get(int width, int height, float[] weights) {
+        Key key = new Key(width, height, weights);
+        synchronized (sCache) {
+            WheelSliceGeometry geometry = sCache.get(key);
+            if(geometry != null) {
+                sHitCount++;
+                return geometry;
+            }
+        }
+
+        //Computed outside the lock. Two threads may compute the same geometry, then the last one is cached
+        WheelSliceGeometry geometry = new WheelSliceGeometry(width, height, key.weights);
+        synchronized (sCache) {
+            sCache.put(key, geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * @return The amount of times a geometry was found in the cache
+     */
+    static int getHitCount() {
+        synchronized (sCache) {
+            return sHitCount;
+        }
+    }
+
+    /**
+     * Drops every cached geometry
+     */
+    static void clear() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+
+    private WheelSliceGeometry(int width, int height, float[] weights) {
+        this.width = width;
+        this.height = height;
+        sectionAngles = new WheelSectionAngles(weights);
+        startAngle = 90 - (float) sectionAngles.getSweepAngle(0) / 2;
+
+        int count = weights.length;
+        sliceBounds = new float[count * 4];
+        sectionBounds = new float[count * 4];
+        separatorLines = new float[count * 4];
+        slicePaths = new Path[count];
+        slicePathIndices = new int[count];
+
+        float[] bounds = new float[4];
+        int r = Math.min(width, height)/2;
+        int centerX = width/2;
+        int centerY = height/2;
+        for(int i = 0; i < count; i++) {
+            float sweepAngle = getSweepAngle(i);
+            if(i > 0 && (sectionAngles.isUniform() || sweepAngle == getSweepAngle(i - 1))) {
+                System.arraycopy(sliceBounds, (i - 1) * 4, sliceBounds, i * 4, 4);
+                slicePathIndices[i] = slicePathIndices[i - 1];
+            } else {
+                getOvalSliceBounds(90 - sweepAngle/2, sweepAngle, bounds);
+                System.arraycopy(bounds, 0, sliceBounds, i * 4, 4);
+                slicePathIndices[i] = i;
+            }
+
+            getOvalSliceBounds((float) (startAngle + sectionAngles.getStartAngle(i)), sweepAngle, bounds);
+            System.arraycopy(bounds, 0, sectionBounds, i * 4, 4);
+
+            double t = Math.toRadians(startAngle + sectionAngles.getStartAngle(i));
+            separatorLines[i*4] = centerX;
+            separatorLines[i*4 + 1] = centerY;
+            separatorLines[i*4 + 2] = (int) Math.round(centerX + r * Math.cos(t));
+            separatorLines[i*4 + 3] = (int) Math.round(centerY + r * Math.sin(t));
+        }
+    }
+
+
+    /**
+     * @return The arcs of the sections
+     */
+    WheelSectionAngles getSectionAngles() {
+        return sectionAngles;
+    }
+
+    /**
+     * @return The angle at which the first section starts, so that it's centered at the bottom of the wheel
+     */
+    float getStartAngle() {
+        return startAngle;
+    }
+
+    float getSweepAngle(int index) {
+        return (float) sectionAngles.getSweepAngle(index);
+    }
+
+    /**
+     * @return The bounds of the oval the slices are cut from
+     */
+    RectF getOval() {
+        return new RectF(WHEEL_INSET, WHEEL_INSET, width - WHEEL_INSET, height - WHEEL_INSET);
+    }
+
+    /**
+     * @param outBounds Gets the left, top, right and bottom of a section's slice, drawn centered at the bottom of the wheel
+     */
+    void getSliceBounds(int index, float[] outBounds) {
+        System.arraycopy(sliceBounds, index * 4, outBounds, 0, 4);
+    }
+
+    /**
+     * @return A Rect enclosing a section's slice, drawn centered at the bottom of the wheel
+     */
+    Rect getSliceRect(int index) {
+        return toEnclosingRect(sliceBounds, index);
+    }
+
+    /**
+     * @return A Rect enclosing a section's slice, drawn in place
+     */
+    Rect getSectionRect(int index) {
+        return toEnclosingRect(sectionBounds, index);
+    }
+
+    /**
+     * @return The separator lines, from the wheel's center to where each section starts,
+     * as expected by {@link android.graphics.Canvas#drawLines(float[], android.graphics.Paint)}. Must not be modified.
+     */
+    float[] getSeparatorLines() {
+        return separatorLines;
+    }
+
+    /**
+     * @return The outline of a section's slice, centered at the bottom of the wheel, the same shape as
+     * {@link android.graphics.Canvas#drawArc(RectF, float, float, boolean, android.graphics.Paint)} draws using the center.
+     * Must not be modified.
+     */
+    Path getSlicePath(int index) {
+        int pathIndex = slicePathIndices[index];
+        synchronized (slicePaths) {
+            if(slicePaths[pathIndex] == null) {
+                float sweepAngle = getSweepAngle(pathIndex);
+                Path path = new Path();
+                path.moveTo(width/2f, height/2f);
+                path.arcTo(getOval(), 90 - sweepAngle/2, sweepAngle, false);
+                path.close();
+                slicePaths[pathIndex] = path;
+            }
+            return slicePaths[pathIndex];
+        }
+    }
+
+
+    private void getOvalSliceBounds(float startAngle, float sweepAngle, float[] outBounds) {
+        WheelGeometry.getSliceBounds(WHEEL_INSET, WHEEL_INSET, width - WHEEL_INSET, height - WHEEL_INSET, startAngle, sweepAngle, outBounds);
+    }
+
+    private static Rect toEnclosingRect(float[] bounds, int index) {
+        return new Rect((int) Math.floor(bounds[index*4]), (int) Math.floor(bounds[index*4 + 1]),
+                (int) Math.ceil(bounds[index*4 + 2]), (int) Math.ceil(bounds[index*4 + 3]));
+    }
+
+
+    private static class Key {
+        private final int width, height;
+        private final float[] weights;
+        private final int hashCode;
+
+        Key(int width, int height, float[] weights) {
+            this.width = width;
+            this.height = height;
+            this.weights = weights.clone();
+            hashCode = 31 * (31 * width + height) + Arrays.hashCode(weights);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return width == other.width && height == other.height && Arrays.equals(weights, other.weights);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
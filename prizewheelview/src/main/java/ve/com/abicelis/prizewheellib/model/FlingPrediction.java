@@ -0,0 +1,61 @@
+package ve.com.abicelis.prizewheellib.model;
+
+/**
+ * Where a fling of the wheel will end, as predicted by
+ * {@link ve.com.abicelis.prizewheellib.PrizeWheelView#predictFling(int, boolean)}
+ */
+
+public class FlingPrediction {
+
+    private int sectionIndex;
+    private double angle;
+    private double totalRotation;
+    private long durationMillis;
+
+
+    public FlingPrediction(int sectionIndex, double angle, double totalRotation, long durationMillis) {
+        this.sectionIndex = sectionIndex;
+        this.angle = angle;
+        this.totalRotation = totalRotation;
+        this.durationMillis = durationMillis;
+    }
+
+
+    /**
+     * @return The index of the section the wheel will settle on
+     */
+    public int getSectionIndex() {
+        return sectionIndex;
+    }
+
+    /**
+     * @return The angle the wheel will settle at, as reported by {@link ve.com.abicelis.prizewheellib.WheelEventsListener#onWheelSettled(int, double)}
+     */
+    public double getAngle() {
+        return angle;
+    }
+
+    /**
+     * @return The degrees the wheel will rotate during the fling. Negative values are counter-clockwise rotations of the wheel's image.
+     */
+    public double getTotalRotation() {
+        return totalRotation;
+    }
+
+    /**
+     * @return How long the fling will last, in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+
+    @Override
+    public String toString() {
+        return
+                "SectionIndex= " +      sectionIndex +
+                ", Angle= " +           angle +
+                ", TotalRotation= " +   totalRotation +
+                ", DurationMillis= " +  durationMillis;
+    }
+}
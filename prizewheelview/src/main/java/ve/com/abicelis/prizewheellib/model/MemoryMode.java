@@ -0,0 +1,28 @@
+package ve.com.abicelis.prizewheellib.model;
+
+/**
+ * How {@link ve.com.abicelis.prizewheellib.PrizeWheelView} stores its wheel's bitmap,
+ * in the {@link RenderMode#BITMAP} render mode.
+ */
+
+public enum MemoryMode {
+    /**
+     * A regular bitmap with transparency, 4 bytes per pixel, in the app's memory.
+     */
+    ARGB_8888,
+
+    /**
+     * The finished wheel is moved to graphics memory, so it takes no space in the app's memory.
+     * Updating a section or the border generates the whole wheel again.
+     * Only available on API 26+, older versions use {@link #ARGB_8888}.
+     */
+    HARDWARE,
+
+    /**
+     * An opaque bitmap, 2 bytes per pixel, with the area around the wheel filled with the wheel's
+     * background color. Meant for wheels shown over a solid background of that color.
+     * These wheels are not stored in the disk cache.
+     */
+    RGB_565,
+    ;
+}
@@ -0,0 +1,19 @@
+package ve.com.abicelis.prizewheellib.model;
+
+/**
+ * How {@link ve.com.abicelis.prizewheellib.PrizeWheelView} draws its wheel.
+ */
+
+public enum RenderMode {
+    /**
+     * The wheel is generated once into a bitmap, which is rotated as a whole.
+     */
+    BITMAP,
+
+    /**
+     * The wheel is drawn on every frame from cached per-section shaders, with a rotated canvas.
+     * Uses less memory on big wheels and keeps the wheel sharp at any rotation.
+     */
+    LIVE,
+    ;
+}
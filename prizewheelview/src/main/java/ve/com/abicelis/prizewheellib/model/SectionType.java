@@ -7,5 +7,8 @@ package ve.com.abicelis.prizewheellib.model;
 public enum SectionType {
     BITMAP,
     DRAWABLE,
-    COLOR;
+    COLOR,
+    FILE,
+    URI,
+    STREAM;
 }
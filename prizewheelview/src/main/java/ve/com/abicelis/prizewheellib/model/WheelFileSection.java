@@ -0,0 +1,34 @@
+package ve.com.abicelis.prizewheellib.model;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A section showing an image file (jpg, png, webp...). The wheel decodes it itself, on a
+ * background thread and subsampled to the section's size, and shows it as soon as it's ready.
+ */
+
+public class WheelFileSection extends WheelSection {
+
+    private String path;
+
+
+    public WheelFileSection(@NonNull String path) {
+        this.path = path;
+    }
+
+
+    public SectionType getType() {
+        return SectionType.FILE;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return
+                "SectionType= " +   getType() +
+                ", Path= " +        path;
+    }
+}
@@ -1,11 +1,62 @@
 package ve.com.abicelis.prizewheellib.model;
 
+import android.support.annotation.DrawableRes;
+import android.support.annotation.Nullable;
+
+import ve.com.abicelis.prizewheellib.exceptions.InvalidWheelSectionDataException;
+
 /**
  * Created by abicelis on 26/7/2017.
  */
 
 public abstract class WheelSection {
 
+    private @Nullable String label;
+    private @DrawableRes int labelIcon = -1;
+    private float weight = 1;
+
+
     public abstract SectionType getType();
 
+
+    /**
+     * Set the section's weight. The section's arc is proportional to its weight, so a section
+     * weighing 2 is twice as big, and twice as likely to win, as a section weighing 1.
+     * DEFAULT: 1
+     * @param weight A weight greater than 0
+     */
+    public void setWeight(float weight) {
+        if(!(weight > 0) || Float.isInfinite(weight))
+            throw new InvalidWheelSectionDataException("Invalid weight " + weight + ", it must be greater than 0. WheelSection data = " + toString());
+        this.weight = weight;
+    }
+
+    public float getWeight() {
+        return weight;
+    }
+
+    /**
+     * Set a text label, drawn along the section's radius. On small sections the label
+     * is shrunk to fit, and hidden if it would get too small to read.
+     */
+    public void setLabel(@Nullable String label) {
+        this.label = label;
+    }
+
+    public @Nullable String getLabel() {
+        return label;
+    }
+
+    /**
+     * Set an icon, drawn near the section's outer edge. On small sections the icon
+     * is shrunk to fit, and hidden if it would get too small to see.
+     */
+    public void setLabelIcon(@DrawableRes int labelIcon) {
+        this.labelIcon = labelIcon;
+    }
+
+    public @DrawableRes int getLabelIcon() {
+        return labelIcon;
+    }
+
 }
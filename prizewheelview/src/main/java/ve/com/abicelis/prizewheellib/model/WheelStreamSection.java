@@ -0,0 +1,51 @@
+package ve.com.abicelis.prizewheellib.model;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A section showing an image read from an InputStream. The wheel decodes it itself, on a
+ * background thread and subsampled to the section's size, and shows it as soon as it's ready.
+ * Stream sections are decoded again every time the wheel is generated, they are never cached.
+ */
+
+public class WheelStreamSection extends WheelSection {
+
+    private StreamSupplier streamSupplier;
+
+
+    public WheelStreamSection(@NonNull StreamSupplier streamSupplier) {
+        this.streamSupplier = streamSupplier;
+    }
+
+
+    public SectionType getType() {
+        return SectionType.STREAM;
+    }
+
+    public StreamSupplier getStreamSupplier() {
+        return streamSupplier;
+    }
+
+    @Override
+    public String toString() {
+        return
+                "SectionType= " +       getType() +
+                ", StreamSupplier= " +  streamSupplier;
+    }
+
+
+    /**
+     * Opens the image's stream. Called on a background thread, more than once per decode:
+     * the image's size is read first, then the image itself.
+     */
+    public interface StreamSupplier {
+
+        /**
+         * @return A new stream, positioned at the start of the image. It is closed by the wheel
+         */
+        InputStream openStream() throws IOException;
+    }
+}
@@ -0,0 +1,36 @@
+package ve.com.abicelis.prizewheellib.model;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+/**
+ * A section showing an image from a Uri (content://, file:// or android.resource://). The wheel
+ * decodes it itself, on a background thread and subsampled to the section's size, and shows it
+ * as soon as it's ready.
+ */
+
+public class WheelUriSection extends WheelSection {
+
+    private Uri uri;
+
+
+    public WheelUriSection(@NonNull Uri uri) {
+        this.uri = uri;
+    }
+
+
+    public SectionType getType() {
+        return SectionType.URI;
+    }
+
+    public Uri getUri() {
+        return uri;
+    }
+
+    @Override
+    public String toString() {
+        return
+                "SectionType= " +   getType() +
+                ", Uri= " +         uri;
+    }
+}
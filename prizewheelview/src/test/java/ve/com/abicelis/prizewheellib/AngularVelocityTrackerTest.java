@@ -0,0 +1,94 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drags a touch around the wheel at a known angular velocity, and checks that {@link AngularVelocityTracker}
+ * follows it the same way in every quadrant and direction, at any sampling rate
+ */
+public class AngularVelocityTrackerTest {
+
+    private static final int WHEEL_SIZE = 1000;
+    private static final double RADIUS = 400;
+    private static final double DEGREES_PER_SECOND = 720;
+    private static final double TOLERANCE = 0.01;         //Fraction of the expected velocity
+
+
+    @Test
+    public void velocity_sameInEveryQuadrantAndDirection() {
+        AngularVelocityTracker tracker = new AngularVelocityTracker();
+
+        for(int startAngle = 0; startAngle < 360; startAngle += 45) {
+            for(int direction : new int[] {1, -1}) {
+                double velocity = direction * DEGREES_PER_SECOND;
+                double moved = drag(tracker, startAngle, velocity, 120, 200);
+
+                String message = "start=" + startAngle + ", direction=" + direction;
+                assertEquals(message, velocity, tracker.getVelocity(), DEGREES_PER_SECOND * TOLERANCE);
+                assertEquals(message, velocity * 0.2, moved, 0.5);
+            }
+        }
+    }
+
+    @Test
+    public void velocity_independentOfSamplingRate() {
+        AngularVelocityTracker tracker = new AngularVelocityTracker();
+
+        for(int samplesPerSecond : new int[] {60, 120, 240, 500, 1000}) {
+            drag(tracker, 170, DEGREES_PER_SECOND, samplesPerSecond, 150);
+            assertEquals("rate=" + samplesPerSecond, DEGREES_PER_SECOND, tracker.getVelocity(), DEGREES_PER_SECOND * TOLERANCE);
+        }
+    }
+
+    @Test
+    public void moves_unwrappedAcrossTheHalfTurnLine() {
+        AngularVelocityTracker tracker = new AngularVelocityTracker();
+        tracker.clear();
+
+        assertEquals(0, tracker.addSample(0, 170), 0);
+        assertEquals(20, tracker.addSample(10, -170), 1e-9);
+        assertEquals(20, tracker.addSample(20, -150), 1e-9);
+        assertEquals(-40, tracker.addSample(30, 170), 1e-9);
+    }
+
+    @Test
+    public void velocity_zeroAfterAPause() {
+        AngularVelocityTracker tracker = new AngularVelocityTracker();
+        drag(tracker, 0, DEGREES_PER_SECOND, 120, 200);
+        assertTrue(tracker.getVelocity() != 0);
+
+        //Finger held still, then released where it was
+        tracker.addSample(1000, 0);
+        assertEquals(0, tracker.getVelocity(), 0);
+    }
+
+    @Test
+    public void velocity_zeroWithoutEnoughSamples() {
+        AngularVelocityTracker tracker = new AngularVelocityTracker();
+        assertEquals(0, tracker.getVelocity(), 0);
+
+        tracker.addSample(0, 45);
+        assertEquals(0, tracker.getVelocity(), 0);
+    }
+
+
+    /**
+     * Clears the tracker and drags a touch around the wheel's center, sampled at a given rate
+     * @return The degrees the tracker reported the touch moved
+     */
+    private static double drag(AngularVelocityTracker tracker, double startAngle, double degreesPerSecond, int samplesPerSecond, int durationMillis) {
+        tracker.clear();
+        double moved = 0;
+        int samples = durationMillis * samplesPerSecond / 1000;
+        for(int i = 0; i <= samples; i++) {
+            long timeMillis = Math.round(i * 1000d / samplesPerSecond);
+            double angle = Math.toRadians(startAngle + degreesPerSecond * timeMillis / 1000);
+            double x = WHEEL_SIZE / 2 + RADIUS * Math.cos(angle);
+            double y = WHEEL_SIZE / 2 - RADIUS * Math.sin(angle);
+            moved += tracker.addSample(timeMillis, WheelGeometry.getTouchAngle(x, y, WHEEL_SIZE, WHEEL_SIZE));
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,69 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the closed form fling prediction against a frame by frame simulation of the fling,
+ * the way {@link PrizeWheelView}'s frame callback applies it. Their cost is compared by FlingBenchmark.
+ */
+public class FlingPredictionTest {
+
+    private static final int SECTIONS = 12;
+    private static final float ANGLE_OFFSET = 90 - (360f / SECTIONS) / 2;
+    private static final int MARKER_OFFSET = 270;
+    private static final float INITIAL_DAMPENING = Constants.INITIAL_FLING_VELOCITY_DAMPENING;
+    private static final float DAMPENING = Constants.FLING_VELOCITY_DAMPENING;
+    private static final int[] FRAME_RATES = new int[] {30, 60, 90, 120, 144};
+    private static final WheelSectionAngles SECTION_ANGLES = WheelSectionAngles.uniform(SECTIONS);
+
+
+    @Test
+    public void prediction_matchesSimulation_acrossVelocities() throws Exception {
+        Random random = new Random(42);
+
+        for(int velocity = -40000; velocity <= 40000; velocity += 250) {
+            for(int frameRate : FRAME_RATES) {
+                double initialWheelRotation = random.nextDouble() * 720 - 360;
+                FlingCurve curve = new FlingCurve(velocity / INITIAL_DAMPENING, DAMPENING);
+
+                double simulated = simulateFling(curve, initialWheelRotation, frameRate, random);
+                double predicted = initialWheelRotation + curve.getTotalAngle();
+
+                assertEquals("velocity=" + velocity + ", frameRate=" + frameRate, predicted, simulated, 1e-3);
+                assertEquals("velocity=" + velocity + ", frameRate=" + frameRate,
+                        getSectionIndex(predicted), getSectionIndex(simulated));
+            }
+        }
+    }
+
+
+    /**
+     * Applies the curve frame by frame, with some jitter in the frame times, accumulating the
+     * per frame rotations as floats like the view does
+     * @return The final rotation of the wheel
+     */
+    private static double simulateFling(FlingCurve curve, double wheelRotation, int frameRate, Random random) {
+        long frameNanos = 1000000000L / frameRate;
+        long elapsed = 0;
+        double applied = 0;
+
+        while (true) {
+            double angle = curve.getAngleAt(elapsed);
+            wheelRotation += (float) (angle - applied);
+            applied = angle;
+
+            if(elapsed >= curve.getDurationNanos())
+                return wheelRotation;
+            elapsed += frameNanos + (random.nextInt(3) - 1) * frameNanos / 4;
+        }
+    }
+
+    private static int getSectionIndex(double wheelRotation) {
+        double rotation = WheelGeometry.normalizeRotation(-wheelRotation - ANGLE_OFFSET);
+        return SECTION_ANGLES.getSectionIndex(rotation, MARKER_OFFSET);
+    }
+}
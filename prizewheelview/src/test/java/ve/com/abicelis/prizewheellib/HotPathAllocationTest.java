@@ -0,0 +1,105 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the heap allocations of a whole spin, from touch down to settle, run through the {@link WheelMotion}
+ * {@link PrizeWheelView} moves the wheel with on every touch event and frame, and the section selection it
+ * reads the result with.
+ */
+public class HotPathAllocationTest {
+
+    private static final int WHEEL_SIZE = 1000;
+    private static final int SECTIONS = 12;
+    private static final int MARKER_OFFSET = 270;
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    private final WheelRotation rotation = new WheelRotation();
+    private final WheelMotion motion = new WheelMotion(rotation);
+    private final WheelSectionAngles sectionAngles = new WheelSectionAngles(new float[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2});
+    private final float angleOffset = 90 - (float) sectionAngles.getSweepAngle(0) / 2;
+
+
+    @Test
+    public void spin_fromTouchDownToSettle_allocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean = getThreadBean();
+        long threadId = Thread.currentThread().getId();
+
+        //Warm up, so class loading and JIT compilation don't count
+        double sink = 0;
+        for(int i = 0; i < 20000; i++)
+            sink += spin(i);
+
+        long overhead = measureOverhead(threadBean, threadId);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for(int i = 0; i < 1000; i++)
+            sink += spin(i);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertTrue(sink != 0);
+        assertEquals("Bytes allocated by 1000 spins", 0, allocated);
+    }
+
+
+    /**
+     * Drags the wheel along a quarter circle, flings it, then plays the fling and a targeted spin until they settle,
+     * making the same {@link WheelMotion} calls as the view's touch listener and frame callback
+     * @return The settled section, so the work isn't optimized away
+     */
+    private double spin(int seed) {
+        //Touch down, then drag, 4 samples batched per move event
+        motion.startDrag(WHEEL_SIZE, WHEEL_SIZE);
+        motion.addDragSample(0, 900, 500);
+        for(int i = 1; i <= 20; i += 4) {
+            for(int j = i; j < i + 4; j++) {
+                double t = Math.toRadians(j * (4.5 + seed % 3));
+                motion.addDragSample(j * 4, (float) (500 + 400 * Math.cos(t)), (float) (500 - 400 * Math.sin(t)));
+            }
+            motion.applyDrag();
+        }
+
+        //Release and fling
+        double velocity = motion.getReleaseVelocity(500, 100);
+        motion.endDrag();
+        motion.startFling((float) -velocity / Constants.INITIAL_FLING_VELOCITY_DAMPENING, Constants.FLING_VELOCITY_DAMPENING, 0);
+        play();
+
+        //Then spin to a section
+        motion.startTargetedSpin(5 * 360 + seed % 360, 5000000000L, 0);
+        play();
+
+        double settledRotation = rotation.getRotation(angleOffset);
+        return sectionAngles.getSectionIndex(settledRotation, MARKER_OFFSET) + settledRotation;
+    }
+
+    private void play() {
+        long frameTimeNanos = FRAME_NANOS;
+        while(motion.stepSpin(frameTimeNanos))
+            frameTimeNanos += FRAME_NANOS;
+    }
+
+    /**
+     * @return The bytes allocated by reading the allocated bytes itself
+     */
+    private static long measureOverhead(com.sun.management.ThreadMXBean threadBean, long threadId) {
+        long first = threadBean.getThreadAllocatedBytes(threadId);
+        long second = threadBean.getThreadAllocatedBytes(threadId);
+        return second - first;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Allocation counting not supported by this JVM", threadBean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue("Allocation counting not supported by this JVM", sunThreadBean.isThreadAllocatedMemorySupported());
+        sunThreadBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadBean;
+    }
+}
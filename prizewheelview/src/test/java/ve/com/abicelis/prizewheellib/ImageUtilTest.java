@@ -0,0 +1,27 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the pure math in {@link ImageUtil}.
+ */
+public class ImageUtilTest {
+
+    @Test
+    public void calculateInSampleSize_keepsBothDimensionsCovered() throws Exception {
+        assertEquals(1, ImageUtil.calculateInSampleSize(300, 300, 300, 300));
+        assertEquals(1, ImageUtil.calculateInSampleSize(200, 4000, 300, 300));
+        assertEquals(8, ImageUtil.calculateInSampleSize(4000, 3000, 300, 300));
+        assertEquals(4, ImageUtil.calculateInSampleSize(4000, 3000, 300, 500));
+
+        for(int width = 100; width <= 6000; width += 97) {
+            int sampleSize = ImageUtil.calculateInSampleSize(width, 3000, 320, 240);
+            if(sampleSize > 1) {
+                assertTrue(width / sampleSize >= 320);
+                assertTrue(3000 / sampleSize >= 240);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks section labels shrink to fit their sections, and get hidden once they'd be unreadable
+ */
+public class LabelFitTest {
+
+    private static final float RADIUS = 500;
+    private static final float INNER_DISTANCE = RADIUS * Constants.LABEL_INNER_RADIUS;
+    private static final float MAX_TEXT_SIZE = 48;
+    private static final float MIN_TEXT_SIZE = 20;
+
+    @Test
+    public void shortLabel_onLargeSection_keepsMaxSize() {
+        float size = WheelGeometry.fitLabelTextSize(2, MAX_TEXT_SIZE, MIN_TEXT_SIZE, RADIUS, INNER_DISTANCE, 360.0 / 8);
+        assertEquals(MAX_TEXT_SIZE, size, 0);
+    }
+
+    @Test
+    public void longLabel_shrinksToRadius() {
+        float size = WheelGeometry.fitLabelTextSize(10, MAX_TEXT_SIZE, MIN_TEXT_SIZE, RADIUS, INNER_DISTANCE, 360.0 / 8);
+        assertEquals((RADIUS - INNER_DISTANCE) / 10, size, 1e-3);
+    }
+
+    @Test
+    public void labels_fitSectionWidth_atAnySectionCount() {
+        for(int sections = 2; sections <= Constants.MAXIMUM_WHEEL_SECTIONS; sections++) {
+            double sweep = 360.0 / sections;
+            float size = WheelGeometry.fitLabelTextSize(3, MAX_TEXT_SIZE, MIN_TEXT_SIZE, RADIUS, INNER_DISTANCE, sweep);
+            if(size == 0)
+                continue;
+
+            float innerEnd = RADIUS - 3 * size;
+            assertTrue("sections=" + sections, innerEnd >= INNER_DISTANCE - 1e-3);
+            assertTrue("sections=" + sections, size <= WheelGeometry.getSectionWidthAt(innerEnd, sweep) + 1e-3);
+            assertTrue("sections=" + sections, size >= MIN_TEXT_SIZE);
+        }
+    }
+
+    @Test
+    public void labels_hiddenOnTinySections_andShrinkMonotonically() {
+        float previous = Float.MAX_VALUE;
+        for(int sections = 2; sections <= Constants.MAXIMUM_WHEEL_SECTIONS; sections++) {
+            float size = WheelGeometry.fitLabelTextSize(3, MAX_TEXT_SIZE, MIN_TEXT_SIZE, RADIUS, INNER_DISTANCE, 360.0 / sections);
+            assertTrue("sections=" + sections, size <= previous);
+            previous = size;
+        }
+        assertEquals(0, WheelGeometry.fitLabelTextSize(3, MAX_TEXT_SIZE, MIN_TEXT_SIZE, RADIUS, INNER_DISTANCE, 360.0 / 200), 0);
+    }
+
+    @Test
+    public void icons_fitSectionWidth_orHide() {
+        for(int sections = 2; sections <= Constants.MAXIMUM_WHEEL_SECTIONS; sections++) {
+            double sweep = 360.0 / sections;
+            float size = WheelGeometry.fitLabelIconSize(96, 24, RADIUS, sweep);
+            if(size == 0)
+                continue;
+
+            assertTrue("sections=" + sections, size <= 96);
+            assertTrue("sections=" + sections, size <= WheelGeometry.getSectionWidthAt(RADIUS - size, sweep) * Constants.LABEL_FILL + 1e-3);
+        }
+        assertEquals(96, WheelGeometry.fitLabelIconSize(96, 24, RADIUS, 360.0 / 4), 0);
+        assertEquals(0, WheelGeometry.fitLabelIconSize(96, 24, RADIUS, 360.0 / 200), 0);
+    }
+}
@@ -0,0 +1,75 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the geometric slice bounds against a pixel scan of the rasterized slice,
+ * for 2 to 12 sections at several wheel sizes.
+ */
+public class SliceBoundsTest {
+
+    private static final int[] WHEEL_SIZES = new int[] {300, 720, 1080};
+    private static final float TOLERANCE_PX = 2f;         //Pixel centers vs exact edges
+
+
+    @Test
+    public void geometricBounds_matchPixelScan() throws Exception {
+        float[] geometric = new float[4];
+        int[] scanned = new int[4];
+
+        for(int size : WHEEL_SIZES) {
+            for(int sections = 2; sections <= 12; sections++) {
+                float sweepAngle = 360f / sections;
+                float startAngle = 90 - sweepAngle / 2;
+
+                int[] pixels = rasterizeSlice(size, startAngle, sweepAngle);
+                WheelGeometry.getOpaqueBounds(pixels, size, size, scanned);
+                WheelGeometry.getSliceBounds(2, 2, size - 2, size - 2, startAngle, sweepAngle, geometric);
+
+                String message = "size=" + size + ", sections=" + sections;
+                for(int i = 0; i < 4; i++)
+                    assertEquals(message, scanned[i], geometric[i], TOLERANCE_PX);
+            }
+        }
+    }
+
+    @Test
+    public void geometricBounds_handleArcsThroughExtremes() throws Exception {
+        float[] bounds = new float[4];
+
+        //Arc crossing the positive x axis: reaches the oval's right edge
+        WheelGeometry.getSliceBounds(0, 0, 100, 100, -30, 60, bounds);
+        assertEquals(50, bounds[0], 1e-3);
+        assertEquals(100, bounds[2], 1e-3);
+
+        //Full circle
+        WheelGeometry.getSliceBounds(0, 0, 100, 100, 45, 360, bounds);
+        assertArrayEquals(new float[] {0, 0, 100, 100}, bounds, 1e-3f);
+    }
+
+
+    /**
+     * Rasterizes a pie slice the way the old mask bitmap did, testing each pixel's center
+     */
+    private static int[] rasterizeSlice(int size, float startAngle, float sweepAngle) {
+        int[] pixels = new int[size * size];
+        double center = size / 2d;
+        double radius = (size - 4) / 2d;
+
+        for(int y = 0; y < size; y++) {
+            for(int x = 0; x < size; x++) {
+                double dx = x + 0.5 - center;
+                double dy = y + 0.5 - center;
+                if(dx * dx + dy * dy > radius * radius)
+                    continue;
+
+                double angle = Math.toDegrees(Math.atan2(dy, dx));
+                if(WheelGeometry.angleInArc(angle, startAngle, sweepAngle))
+                    pixels[y * size + x] = 0xFFFFFFFF;
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,62 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks late and dropped frame counting of {@link SpinMetrics}
+ */
+public class SpinMetricsTest {
+
+    private static final long FRAME_60HZ = 1000000000L / 60;
+
+    @Test
+    public void steadyFrames_noneLate() {
+        SpinMetrics metrics = new SpinMetrics();
+        metrics.start(0, 60);
+        for(int i = 1; i <= 60; i++)
+            metrics.onFrame(i * FRAME_60HZ);
+        metrics.finish(false);
+
+        assertEquals(60, metrics.getFramesRendered());
+        assertEquals(0, metrics.getLateFrames());
+        assertEquals(0, metrics.getDroppedFrames());
+        assertEquals(FRAME_60HZ, metrics.getMaxFrameIntervalNanos());
+        assertEquals(60 * FRAME_60HZ, metrics.getDurationNanos());
+        assertFalse(metrics.wasStopped());
+    }
+
+    @Test
+    public void longFrames_countedAsLateAndDropped() {
+        SpinMetrics metrics = new SpinMetrics();
+        metrics.start(0, 60);
+        metrics.onFrame(FRAME_60HZ);
+        metrics.onFrame(4 * FRAME_60HZ);            //Skipped 2 frames
+        metrics.onFrame(5 * FRAME_60HZ);
+        metrics.onFrame(7 * FRAME_60HZ);            //Skipped 1 frame
+        metrics.finish(true);
+
+        assertEquals(4, metrics.getFramesRendered());
+        assertEquals(2, metrics.getLateFrames());
+        assertEquals(3, metrics.getDroppedFrames());
+        assertEquals(3 * FRAME_60HZ, metrics.getMaxFrameIntervalNanos());
+        assertTrue(metrics.wasStopped());
+    }
+
+    @Test
+    public void restart_resetsCounters() {
+        SpinMetrics metrics = new SpinMetrics();
+        metrics.start(0, 120);
+        metrics.onFrame(1000000000L / 120);
+        metrics.onFrame(1000000000L);
+        metrics.finish(true);
+
+        metrics.start(0, 60);
+        metrics.onFrame(FRAME_60HZ);
+        assertEquals(1, metrics.getFramesRendered());
+        assertEquals(0, metrics.getLateFrames());
+        assertEquals(0, metrics.getMaxFrameIntervalNanos());
+        assertFalse(metrics.wasStopped());
+    }
+}
@@ -0,0 +1,65 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link WheelRotation} counts turns correctly and doesn't drift over very long sessions
+ */
+public class WheelRotationTest {
+
+    private static final float ANGLE_OFFSET = 75;
+
+    @Test
+    public void rotate_countsTurnsBothWays() {
+        WheelRotation rotation = new WheelRotation();
+
+        rotation.rotate(370);
+        assertEquals(1, rotation.getTurns());
+        assertEquals(10, rotation.getImageAngle(), 1e-9);
+
+        rotation.rotate(-380);
+        assertEquals(-1, rotation.getTurns());
+        assertEquals(350, rotation.getImageAngle(), 1e-9);
+        assertEquals(-10, rotation.getTotalDegrees(), 1e-9);
+
+        rotation.rotate(-720);
+        assertEquals(-3, rotation.getTurns());
+        assertEquals(350, rotation.getImageAngle(), 1e-9);
+    }
+
+    @Test
+    public void getRotation_decreasesAsWheelRotates() {
+        WheelRotation rotation = new WheelRotation();
+        double before = rotation.getRotation(ANGLE_OFFSET);
+
+        rotation.rotate(12.25);
+        assertEquals(WheelGeometry.normalizeRotation(before - 12.25), rotation.getRotation(ANGLE_OFFSET), 1e-9);
+    }
+
+    @Test
+    public void rotate_manySmallSteps_doesNotDrift() {
+        WheelRotation rotation = new WheelRotation();
+        Random random = new Random(7);
+
+        //About a week of flinging at 60fps, in tiny steps, going back and forth
+        long steps = 0;
+        double expectedTotal = 0;
+        for(int spin = 0; spin < 20000; spin++) {
+            double step = (random.nextDouble() * 9 + 0.001) * (spin % 3 == 0 ? -1 : 1);
+            for(int frame = 0; frame < 300; frame++) {
+                rotation.rotate(step);
+                steps++;
+            }
+            expectedTotal += step * 300;
+        }
+
+        assertEquals(6000000, steps);
+        assertEquals(expectedTotal, rotation.getTotalDegrees(), 1e-3);
+        assertEquals(WheelGeometry.positiveModulo(expectedTotal), rotation.getImageAngle(), 1e-3);
+        assertEquals((long) Math.floor(expectedTotal / 360), rotation.getTurns());
+    }
+}
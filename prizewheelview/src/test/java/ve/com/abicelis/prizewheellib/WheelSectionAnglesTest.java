@@ -0,0 +1,113 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the weighted section lookup of {@link WheelSectionAngles}, especially on section boundaries
+ */
+public class WheelSectionAnglesTest {
+
+    private static final int[] MARKER_OFFSETS = new int[] {0, 45, 90, 135, 180, 225, 270, 315};
+
+    @Test
+    public void angles_proportionalToWeights() {
+        WheelSectionAngles angles = new WheelSectionAngles(new float[] {1, 2, 1});
+
+        assertEquals(0, angles.getStartAngle(0), 0);
+        assertEquals(90, angles.getSweepAngle(0), 1e-9);
+        assertEquals(90, angles.getStartAngle(1), 1e-9);
+        assertEquals(180, angles.getSweepAngle(1), 1e-9);
+        assertEquals(270, angles.getStartAngle(2), 1e-9);
+        assertEquals(90, angles.getSweepAngle(2), 1e-9);
+        assertEquals(90, angles.getMinimumSweepAngle(), 1e-9);
+        assertFalse(angles.isUniform());
+    }
+
+    @Test
+    public void boundaries_belongToTheSectionStartingThere() {
+        WheelSectionAngles angles = new WheelSectionAngles(new float[] {1, 2, 1});
+
+        assertEquals(0, angles.getSectionIndex(1e-9, 0));
+        assertEquals(0, angles.getSectionIndex(89.999, 0));
+        assertEquals(1, angles.getSectionIndex(90, 0));
+        assertEquals(1, angles.getSectionIndex(269.999, 0));
+        assertEquals(2, angles.getSectionIndex(270, 0));
+        assertEquals(2, angles.getSectionIndex(360, 0));          //(0, 360] range, 360 is the end of the last section
+
+        //Marker offsets wrap around
+        assertEquals(2, angles.getSectionIndex(360, 270));
+        assertEquals(2, angles.getSectionIndex(90, 270));
+        assertEquals(0, angles.getSectionIndex(100, 270));
+        assertEquals(1, angles.getSectionIndex(180, 270));
+    }
+
+    @Test
+    public void uniformWeights_matchLinearScan() {
+        for(int count : new int[] {2, 3, 7, 12, 50, 200, 360}) {
+            WheelSectionAngles uniform = WheelSectionAngles.uniform(count);
+            assertTrue(uniform.isUniform());
+            assertEquals(360.0 / count, uniform.getSweepAngle(count - 1), 1e-9);
+
+            for(int marker : MARKER_OFFSETS) {
+                for(double rotation = 0.01; rotation <= 360; rotation += 0.37) {
+                    assertEquals("count=" + count + ", rotation=" + rotation, linearScan(uniform, rotation, marker), uniform.getSectionIndex(rotation, marker));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void randomWeights_matchLinearScan() {
+        Random random = new Random(3);
+
+        for(int count : new int[] {2, 12, 50, 200, 360}) {
+            float[] weights = new float[count];
+            for(int i = 0; i < count; i++)
+                weights[i] = 0.1f + random.nextFloat() * 10;
+            WheelSectionAngles angles = new WheelSectionAngles(weights);
+
+            for(int i = 0; i < 20000; i++) {
+                double rotation = 360 - random.nextDouble() * 360;
+                int marker = MARKER_OFFSETS[i % MARKER_OFFSETS.length];
+                assertEquals(linearScan(angles, rotation, marker), angles.getSectionIndex(rotation, marker));
+            }
+
+            assertBoundaries(angles);
+        }
+    }
+
+    @Test
+    public void uniformWeights_boundariesMatchStartAngles() {
+        for(int count = 2; count <= 360; count++)
+            assertBoundaries(WheelSectionAngles.uniform(count));
+    }
+
+
+    /**
+     * Checks that every section starts exactly at its start angle, and the previous one ends right before it
+     */
+    private static void assertBoundaries(WheelSectionAngles angles) {
+        int count = angles.getCount();
+        for(int i = 1; i < count; i++) {
+            double start = angles.getStartAngle(i);
+            assertEquals("count=" + count + ", start of " + i, i, angles.getSectionIndex(start, 0));
+            assertEquals("count=" + count + ", end of " + (i - 1), i - 1, angles.getSectionIndex(Math.nextAfter(start, 0), 0));
+        }
+        assertEquals("count=" + count + ", end of the last section", count - 1, angles.getSectionIndex(360, 0));
+    }
+
+    private static int linearScan(WheelSectionAngles angles, double rotation, int marker) {
+        double angle = rotation + marker;
+        if(angle > 360)
+            angle -= 360;
+        for(int i = angles.getCount() - 1; i > 0; i--) {
+            if(angles.getStartAngle(i) <= angle)
+                return i;
+        }
+        return 0;
+    }
+}
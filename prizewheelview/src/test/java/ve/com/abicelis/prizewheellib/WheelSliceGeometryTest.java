@@ -0,0 +1,77 @@
+package ve.com.abicelis.prizewheellib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link WheelSliceGeometry} is shared between wheels of the same size and weights,
+ * and that its cached bounds match the ones computed for each slice
+ */
+public class WheelSliceGeometryTest {
+
+    private static final int WHEEL_SIZE = 720;
+
+
+    @Test
+    public void sameSizeAndWeights_shareGeometry() {
+        WheelSliceGeometry.clear();
+        WheelSliceGeometry geometry = WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 2, 1});
+        int hits = WheelSliceGeometry.getHitCount();
+
+        assertSame(geometry, WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 2, 1}));
+        assertEquals(hits + 1, WheelSliceGeometry.getHitCount());
+
+        assertNotSame(geometry, WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 1, 2}));
+        assertNotSame(geometry, WheelSliceGeometry.get(WHEEL_SIZE + 1, WHEEL_SIZE, new float[] {1, 2, 1}));
+        assertNotSame(geometry, WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 2, 1, 1}));
+    }
+
+    @Test
+    public void cache_dropsLeastRecentlyUsed() {
+        WheelSliceGeometry.clear();
+        WheelSliceGeometry first = WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 1});
+        for(int i = 0; i < WheelSliceGeometry.CACHE_SIZE; i++)
+            WheelSliceGeometry.get(WHEEL_SIZE + 1 + i, WHEEL_SIZE, new float[] {1, 1});
+
+        assertNotSame(first, WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 1}));
+    }
+
+    @Test
+    public void bounds_matchSliceBounds() {
+        float[] weights = new float[] {1, 2, 0.5f, 1, 3};
+        WheelSliceGeometry geometry = WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, weights);
+        WheelSectionAngles angles = new WheelSectionAngles(weights);
+        float inset = WheelSliceGeometry.WHEEL_INSET;
+        float[] expected = new float[4];
+        float[] actual = new float[4];
+
+        for(int i = 0; i < weights.length; i++) {
+            float sweepAngle = (float) angles.getSweepAngle(i);
+            assertEquals(sweepAngle, geometry.getSweepAngle(i), 0);
+
+            WheelGeometry.getSliceBounds(inset, inset, WHEEL_SIZE - inset, WHEEL_SIZE - inset, 90 - sweepAngle/2, sweepAngle, expected);
+            geometry.getSliceBounds(i, actual);
+            assertArrayEquals("slice " + i, expected, actual, 0);
+        }
+    }
+
+    @Test
+    public void separatorLines_startAtTheCenter() {
+        WheelSliceGeometry geometry = WheelSliceGeometry.get(WHEEL_SIZE, WHEEL_SIZE, new float[] {1, 1, 1, 1});
+        float[] lines = geometry.getSeparatorLines();
+        assertEquals(16, lines.length);
+
+        //The first section is centered at the bottom, so the sections start at 45, 135, 225 and 315 degrees
+        float center = WHEEL_SIZE / 2;
+        float offset = Math.round(center / Math.sqrt(2));
+        float[] ends = new float[] {center + offset, center + offset, center - offset, center + offset,
+                center - offset, center - offset, center + offset, center - offset};
+        for(int i = 0; i < 4; i++) {
+            assertEquals(center, lines[i*4], 0);
+            assertEquals(center, lines[i*4 + 1], 0);
+            assertEquals(ends[i*2], lines[i*4 + 2], 1);
+            assertEquals(ends[i*2 + 1], lines[i*4 + 3], 1);
+        }
+    }
+}